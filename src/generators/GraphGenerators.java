@@ -0,0 +1,251 @@
+package generators;
+
+import graphs.IGraph;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Fills graphs with generated vertices and edges, for testing and
+ * benchmarking graph structures at scale. Vertices are the integers
+ * 0, 1, ..., n - 1, and edge weights are taken from an IntSupplier.
+ *
+ * The generators only use IGraph methods, so they work with any graph
+ * structure. Note that a matrix-based graph needs space for the square of
+ * its vertex count, whether or not the generated graph is sparse.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public final class GraphGenerators
+{
+    private GraphGenerators()
+    {
+    }
+
+    /**
+     * Returns a weight supplier that gives every edge a weight of one.
+     * @return a unit weight supplier
+     */
+    public static IntSupplier unitWeights()
+    {
+        return () -> 1;
+    }
+
+    /**
+     * Returns a weight supplier with weights chosen uniformly at random.
+     *
+     * @param random the random number generator to use
+     * @param maxWeight the largest weight to return
+     * @return a random weight supplier
+     * @throws IllegalArgumentException when the largest weight is not positive
+     */
+    public static IntSupplier randomWeights(Random random, int maxWeight)
+    {
+        if (maxWeight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + maxWeight);
+        }
+        return () -> 1 + random.nextInt(maxWeight);
+    }
+
+    private static void addVertices(IGraph<Integer> graph, int count)
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("The vertex count must not be negative: " + count);
+        }
+        for (int i = 0; i < count; i++)
+        {
+            graph.addVertex(i);
+        }
+    }
+
+    /**
+     * Adds an Erdos-Renyi random graph G(n, p): each of the n(n - 1) possible
+     * edges (without self-loops) is added with probability p. Only the chosen
+     * edges are visited, so this runs in time proportional to n plus the
+     * number of edges.
+     *
+     * @param graph the graph to fill
+     * @param vertexCount the number of vertices (n)
+     * @param probability the probability of each edge (p)
+     * @param random the random number generator to use
+     * @param weights supplies the edge weights
+     * @param <G> the type of graph
+     * @return the graph
+     * @throws IllegalArgumentException when the count or probability is out of range
+     */
+    public static <G extends IGraph<Integer>> G erdosRenyi(G graph, int vertexCount, double probability,
+                                                           Random random, IntSupplier weights)
+    {
+        if (probability < 0 || probability > 1)
+        {
+            throw new IllegalArgumentException("Edge probability must be between 0 and 1: " + probability);
+        }
+
+        addVertices(graph, vertexCount);
+        if (probability == 0 || vertexCount < 2)
+        {
+            return graph;
+        }
+
+        //jump straight to the next chosen edge with a geometric skip
+        long possible = (long) vertexCount * (vertexCount - 1);
+        double logFail = Math.log(1 - probability);
+        long position = -1;
+        while (true)
+        {
+            long skip = probability == 1 ? 0 : (long) Math.floor(Math.log(1 - random.nextDouble()) / logFail);
+            position += 1 + skip;
+            if (position >= possible || position < 0)
+            {
+                return graph;
+            }
+
+            int source = (int) (position / (vertexCount - 1));
+            int destination = (int) (position % (vertexCount - 1));
+            if (destination >= source)
+            {
+                destination++;
+            }
+            graph.addEdge(source, destination, weights.getAsInt());
+        }
+    }
+
+    /**
+     * Adds a graph grown by preferential attachment, which has a power-law
+     * in-degree distribution. Vertices are added one at a time, and each new
+     * vertex adds edges to a number of distinct older vertices, chosen with
+     * probability proportional to their in-degree plus one.
+     *
+     * @param graph the graph to fill
+     * @param vertexCount the number of vertices
+     * @param edgesPerVertex the number of edges added by each new vertex
+     * @param random the random number generator to use
+     * @param weights supplies the edge weights
+     * @param <G> the type of graph
+     * @return the graph
+     * @throws IllegalArgumentException when a count is negative
+     */
+    public static <G extends IGraph<Integer>> G preferentialAttachment(G graph, int vertexCount,
+                                                                       int edgesPerVertex, Random random,
+                                                                       IntSupplier weights)
+    {
+        if (edgesPerVertex < 0)
+        {
+            throw new IllegalArgumentException("The edges per vertex must not be negative: " + edgesPerVertex);
+        }
+
+        addVertices(graph, vertexCount);
+
+        //each vertex appears once, plus once per incoming edge
+        int[] endpoints = new int[(int) Math.min(Integer.MAX_VALUE - 8,
+                (long) vertexCount * (edgesPerVertex + 1))];
+        int endpointCount = 0;
+        for (int vertex = 0; vertex < vertexCount; vertex++)
+        {
+            int edges = Math.min(edgesPerVertex, vertex);
+            int added = 0;
+            while (added < edges)
+            {
+                int target = endpoints[random.nextInt(endpointCount)];
+                if (graph.addEdge(vertex, target, weights.getAsInt()))
+                {
+                    endpoints[endpointCount++] = target;
+                    added++;
+                }
+            }
+            endpoints[endpointCount++] = vertex;
+        }
+        return graph;
+    }
+
+    /**
+     * Adds a two-dimensional grid, where each vertex has an edge to (and from)
+     * the vertices beside, above and below it. The vertex in row r and
+     * column c is r * columns + c.
+     *
+     * @param graph the graph to fill
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param weights supplies the edge weights
+     * @param <G> the type of graph
+     * @return the graph
+     * @throws IllegalArgumentException when a count is negative
+     */
+    public static <G extends IGraph<Integer>> G grid(G graph, int rows, int columns, IntSupplier weights)
+    {
+        if (rows < 0 || columns < 0)
+        {
+            throw new IllegalArgumentException("Grid sizes must not be negative: " + rows + " x " + columns);
+        }
+
+        addVertices(graph, rows * columns);
+        for (int row = 0; row < rows; row++)
+        {
+            for (int col = 0; col < columns; col++)
+            {
+                int vertex = row * columns + col;
+                if (col + 1 < columns)
+                {
+                    graph.addEdge(vertex, vertex + 1, weights.getAsInt());
+                    graph.addEdge(vertex + 1, vertex, weights.getAsInt());
+                }
+                if (row + 1 < rows)
+                {
+                    graph.addEdge(vertex, vertex + columns, weights.getAsInt());
+                    graph.addEdge(vertex + columns, vertex, weights.getAsInt());
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Adds a complete graph, with an edge from every vertex to every other
+     * vertex (and no self-loops).
+     *
+     * @param graph the graph to fill
+     * @param vertexCount the number of vertices
+     * @param weights supplies the edge weights
+     * @param <G> the type of graph
+     * @return the graph
+     * @throws IllegalArgumentException when the count is negative
+     */
+    public static <G extends IGraph<Integer>> G complete(G graph, int vertexCount, IntSupplier weights)
+    {
+        addVertices(graph, vertexCount);
+        for (int source = 0; source < vertexCount; source++)
+        {
+            for (int destination = 0; destination < vertexCount; destination++)
+            {
+                if (source != destination)
+                {
+                    graph.addEdge(source, destination, weights.getAsInt());
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Adds a chain (path) of vertices: 0 => 1 => 2 => ... => n - 1.
+     *
+     * @param graph the graph to fill
+     * @param vertexCount the number of vertices
+     * @param weights supplies the edge weights
+     * @param <G> the type of graph
+     * @return the graph
+     * @throws IllegalArgumentException when the count is negative
+     */
+    public static <G extends IGraph<Integer>> G chain(G graph, int vertexCount, IntSupplier weights)
+    {
+        addVertices(graph, vertexCount);
+        for (int vertex = 0; vertex + 1 < vertexCount; vertex++)
+        {
+            graph.addEdge(vertex, vertex + 1, weights.getAsInt());
+        }
+        return graph;
+    }
+}
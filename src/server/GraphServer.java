@@ -0,0 +1,385 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import structures.DirectedGraph;
+import structures.ShortestPaths;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Serves read queries on one in-process DirectedGraph over HTTP, so that
+ * several services can share a single copy of a large graph. The server
+ * listens on the loopback address only and answers GET requests with JSON:
+ *
+ * <ul>
+ *     <li>/edge?source=a&amp;destination=b - whether the edge exists, and its weight</li>
+ *     <li>/neighbors?vertex=a - the out-edges of a vertex</li>
+ *     <li>/path?source=a&amp;destination=b - the shortest path between two vertices</li>
+ * </ul>
+ *
+ * Vertices are read from query parameters with a parser function and
+ * written with toString(). Each request runs on its own virtual thread when
+ * the JVM supports them, and on a cached thread pool otherwise.
+ *
+ * Queries run under a shared read lock. Changes to the graph must be made
+ * through write(), which holds the write lock. Path requests from the same
+ * source that arrive while a search is running share that search instead of
+ * starting their own.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class GraphServer<V> implements Closeable
+{
+    private static final int STOP_DELAY_SECONDS = 1;
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final DirectedGraph<V> graph;
+    private final Function<String, V> vertexParser;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<V, CompletableFuture<ShortestPaths<V>>> searches = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    /**
+     * Starts a server for a graph on a local port.
+     *
+     * By default the JDK server leaves Nagle's algorithm on, so each small
+     * response can wait about 40ms for a delayed ACK. Call enableNoDelay()
+     * before starting the first server to avoid this.
+     *
+     * @param graph the graph to serve
+     * @param vertexParser turns query parameters into vertices
+     * @param port the port to listen on, or 0 to pick a free port
+     * @throws IOException when the server cannot listen on the port
+     */
+    public GraphServer(DirectedGraph<V> graph, Function<String, V> vertexParser, int port) throws IOException
+    {
+        this.graph = graph;
+        this.vertexParser = vertexParser;
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/edge", exchange -> handle(exchange, this::edge));
+        server.createContext("/neighbors", exchange -> handle(exchange, this::neighbors));
+        server.createContext("/path", exchange -> handle(exchange, this::path));
+
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Turns on TCP_NODELAY for every JDK HttpServer in this JVM by setting
+     * the JVM-wide sun.net.httpserver.nodelay system property. The JDK reads
+     * the property once, when the first HttpServer is created, so this must
+     * be called before then. A value already set (for example on the
+     * command line) is kept.
+     */
+    public static void enableNoDelay()
+    {
+        if (System.getProperty(NO_DELAY_PROPERTY) == null)
+        {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the JVM has one
+     * (Java 21 and later), or a cached thread pool otherwise.
+     */
+    private static ExecutorService newRequestExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool(task ->
+            {
+                Thread thread = new Thread(task, "graph-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Getter for the port the server is listening on.
+     * @return the local port
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Changes the graph while no queries are running.
+     *
+     * @param change the change to make
+     */
+    public void write(Consumer<DirectedGraph<V>> change)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            change.accept(graph);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the server, waiting briefly for running requests to finish.
+     */
+    @Override
+    public void close()
+    {
+        server.stop(STOP_DELAY_SECONDS);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, Function<Map<String, String>, String> query) throws IOException
+    {
+        int status = 200;
+        String body;
+        try
+        {
+            if (!"GET".equals(exchange.getRequestMethod()))
+            {
+                status = 405;
+                body = error("Only GET requests are supported");
+            }
+            else
+            {
+                body = query.apply(parameters(exchange.getRequestURI().getRawQuery()));
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            status = 400;
+            body = error(e.getMessage());
+        }
+        catch (RuntimeException e)
+        {
+            status = 500;
+            body = error(String.valueOf(e));
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parameters(String rawQuery)
+    {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty())
+        {
+            return parameters;
+        }
+
+        for (String pair : rawQuery.split("&"))
+        {
+            int equals = pair.indexOf('=');
+            String name = equals == -1 ? pair : pair.substring(0, equals);
+            String value = equals == -1 ? "" : pair.substring(equals + 1);
+            parameters.put(decode(name), decode(value));
+        }
+        return parameters;
+    }
+
+    private static String decode(String text)
+    {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+
+    private V vertex(Map<String, String> parameters, String name)
+    {
+        String value = parameters.get(name);
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Missing query parameter: " + name);
+        }
+        return vertexParser.apply(value);
+    }
+
+    private String edge(Map<String, String> parameters)
+    {
+        V source = vertex(parameters, "source");
+        V destination = vertex(parameters, "destination");
+
+        int weight;
+        lock.readLock().lock();
+        try
+        {
+            weight = graph.edgeWeight(source, destination);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+
+        return "{\"source\":" + quote(source) + ",\"destination\":" + quote(destination)
+                + ",\"exists\":" + (weight != -1) + ",\"weight\":" + weight + "}";
+    }
+
+    private String neighbors(Map<String, String> parameters)
+    {
+        V vertex = vertex(parameters, "vertex");
+
+        Map<V, Integer> neighbors;
+        lock.readLock().lock();
+        try
+        {
+            neighbors = graph.neighbors(vertex);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+
+        StringBuilder json = new StringBuilder("{\"vertex\":").append(quote(vertex)).append(",\"neighbors\":[");
+        boolean first = true;
+        for (Map.Entry<V, Integer> neighbor : neighbors.entrySet())
+        {
+            json.append(first ? "" : ",").append("{\"vertex\":").append(quote(neighbor.getKey()))
+                    .append(",\"weight\":").append(neighbor.getValue()).append("}");
+            first = false;
+        }
+        return json.append("]}").toString();
+    }
+
+    private String path(Map<String, String> parameters)
+    {
+        V source = vertex(parameters, "source");
+        V destination = vertex(parameters, "destination");
+
+        ShortestPaths<V> paths = shortestPaths(source);
+        List<V> path = paths.pathTo(destination);
+
+        StringBuilder json = new StringBuilder("{\"source\":").append(quote(source))
+                .append(",\"destination\":").append(quote(destination))
+                .append(",\"distance\":").append(paths.distanceTo(destination))
+                .append(",\"path\":[");
+        for (int i = 0; i < path.size(); i++)
+        {
+            json.append(i == 0 ? "" : ",").append(quote(path.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Searches from a source vertex, or joins a search from the same
+     * source that is already running.
+     */
+    private ShortestPaths<V> shortestPaths(V source)
+    {
+        CompletableFuture<ShortestPaths<V>> search = new CompletableFuture<>();
+        CompletableFuture<ShortestPaths<V>> running = searches.putIfAbsent(source, search);
+        if (running != null)
+        {
+            return join(running);
+        }
+
+        try
+        {
+            lock.readLock().lock();
+            try
+            {
+                search.complete(graph.shortestPaths(source));
+            }
+            finally
+            {
+                lock.readLock().unlock();
+            }
+        }
+        catch (RuntimeException e)
+        {
+            search.completeExceptionally(e);
+        }
+        finally
+        {
+            searches.remove(source, search);
+        }
+        return join(search);
+    }
+
+    private static <T> T join(CompletableFuture<T> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a search", e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static String error(String message)
+    {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    /**
+     * Writes a value as a JSON string.
+     */
+    static String quote(Object value)
+    {
+        String text = String.valueOf(value);
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\')
+            {
+                json.append('\\').append(c);
+            }
+            else if (c < 0x20)
+            {
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else
+            {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -0,0 +1,208 @@
+package server;
+
+import generators.GraphGenerators;
+import structures.DirectedGraph;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sends a random mix of edge, neighbor and path queries to a GraphServer
+ * on localhost from several threads, then prints the throughput and
+ * latency percentiles. Query vertices are the integers 0 to n - 1.
+ *
+ * Usage: LoadTestClient [port [vertices [threads [requests]]]]
+ *
+ * When no port is given (or the port is 0), a server is started in this
+ * process over a generated random graph.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class LoadTestClient
+{
+    private static final int DEFAULT_VERTICES = 2_000;
+    private static final int DEFAULT_THREADS = 16;
+    private static final int DEFAULT_REQUESTS = 20_000;
+    private static final double EDGE_PROBABILITY = 0.005;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String baseUri;
+    private final int vertices;
+
+    /**
+     * Creates a client for a server on a local port.
+     *
+     * @param port the port the server is listening on
+     * @param vertices the number of vertices to pick queries from
+     */
+    public LoadTestClient(int port, int vertices)
+    {
+        this.baseUri = "http://localhost:" + port;
+        this.vertices = vertices;
+    }
+
+    /**
+     * Sends one random query and waits for the answer.
+     *
+     * @param random the random number generator to pick the query with
+     * @return the response latency in nanoseconds
+     * @throws IOException when the request fails or the server returns an error
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public long query(Random random) throws IOException, InterruptedException
+    {
+        int source = random.nextInt(vertices);
+        int destination = random.nextInt(vertices);
+        int choice = random.nextInt(10);
+
+        String path;
+        if (choice < 6)
+        {
+            path = "/edge?source=" + source + "&destination=" + destination;
+        }
+        else if (choice < 9)
+        {
+            path = "/neighbors?vertex=" + source;
+        }
+        else
+        {
+            //a small set of sources, so concurrent searches can be shared
+            path = "/path?source=" + (source % 8) + "&destination=" + destination;
+        }
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUri + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        long latency = System.nanoTime() - start;
+        if (response.statusCode() != 200)
+        {
+            throw new IOException("Request " + path + " failed: " + response.statusCode() + " " + response.body());
+        }
+        return latency;
+    }
+
+    /**
+     * Sends queries from several threads and returns the latency of each.
+     *
+     * @param threads the number of threads sending queries
+     * @param requests the total number of queries
+     * @return the latencies in nanoseconds, sorted
+     * @throws IOException when a request fails
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public long[] run(int threads, int requests) throws IOException, InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                int count = requests / threads + (t < requests % threads ? 1 : 0);
+                Random random = new Random(t);
+                Callable<long[]> task = () ->
+                {
+                    long[] latencies = new long[count];
+                    for (int i = 0; i < count; i++)
+                    {
+                        latencies[i] = query(random);
+                    }
+                    return latencies;
+                };
+                results.add(pool.submit(task));
+            }
+
+            long[] latencies = new long[requests];
+            int position = 0;
+            for (Future<long[]> result : results)
+            {
+                long[] part = result.get();
+                System.arraycopy(part, 0, latencies, position, part.length);
+                position += part.length;
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile)
+    {
+        if (sorted.length == 0)
+        {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static int argument(String[] args, int position, int defaultValue)
+    {
+        return args.length > position ? Integer.parseInt(args[position]) : defaultValue;
+    }
+
+    /**
+     * Runs the load test and prints a summary.
+     *
+     * @param args the optional port, vertex count, thread count and request count
+     * @throws Exception when the test fails
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int port = argument(args, 0, 0);
+        int vertices = argument(args, 1, DEFAULT_VERTICES);
+        int threads = argument(args, 2, DEFAULT_THREADS);
+        int requests = argument(args, 3, DEFAULT_REQUESTS);
+
+        GraphServer<Integer> server = null;
+        if (port == 0)
+        {
+            GraphServer.enableNoDelay();
+            DirectedGraph<Integer> graph = GraphGenerators.erdosRenyi(new DirectedGraph<>(), vertices,
+                    EDGE_PROBABILITY, new Random(1), GraphGenerators.randomWeights(new Random(2), 100));
+            server = new GraphServer<>(graph, Integer::valueOf, 0);
+            port = server.getPort();
+        }
+
+        try
+        {
+            LoadTestClient client = new LoadTestClient(port, vertices);
+            long start = System.nanoTime();
+            long[] latencies = client.run(threads, requests);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d requests from %d threads in %.2f s (%.0f requests/s)%n",
+                    requests, threads, seconds, requests / seconds);
+            System.out.printf("latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f%n",
+                    percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.90),
+                    percentileMillis(latencies, 0.99), percentileMillis(latencies, 1.0));
+        }
+        finally
+        {
+            if (server != null)
+            {
+                server.close();
+            }
+        }
+    }
+}
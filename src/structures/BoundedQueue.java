@@ -0,0 +1,132 @@
+package structures;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, lock-free queue for many producer threads and a single
+ * consumer thread. Each slot of the ring buffer has a sequence number that
+ * tells producers when the slot is free and the consumer when it has been
+ * filled, so producers only contend on one compare-and-set of the tail.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <E> the type of elements in the queue
+ */
+class BoundedQueue<E>
+{
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity the least number of elements the queue can hold,
+     *                 which is rounded up to a power of two
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    BoundedQueue(int capacity)
+    {
+        if (capacity <= 0 || capacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("Queue capacity must be between 1 and 2^30: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+        {
+            size <<= 1;
+        }
+        slots = new Object[size];
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+        for (int i = 0; i < size; i++)
+        {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the number of elements the queue can hold.
+     * @return the queue capacity
+     */
+    int capacity()
+    {
+        return slots.length;
+    }
+
+    /**
+     * Adds an element to the queue, if there is room. Safe to call from
+     * any thread.
+     *
+     * @param element the element to add
+     * @return true if the element was added, or false if the queue is full
+     */
+    boolean offer(E element)
+    {
+        long position = tail.get();
+        while (true)
+        {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0)
+            {
+                if (tail.compareAndSet(position, position + 1))
+                {
+                    break;
+                }
+                position = tail.get();
+            }
+            else if (difference < 0)
+            {
+                //the consumer hasn't emptied this slot since the last lap
+                return false;
+            }
+            else
+            {
+                position = tail.get();
+            }
+        }
+
+        int slot = (int) position & mask;
+        slots[slot] = element;
+        sequences.set(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the element at the head of the queue. Must only be called
+     * from the consumer thread.
+     *
+     * @return the element, or null if no element is ready
+     */
+    @SuppressWarnings("unchecked")
+    E poll()
+    {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1)
+        {
+            return null;
+        }
+
+        E element = (E) slots[slot];
+        slots[slot] = null;
+        sequences.set(slot, head + slots.length);
+        head++;
+        return element;
+    }
+
+    /**
+     * Returns the number of elements that have been added to the queue
+     * (including any still being written by a producer).
+     *
+     * @return the count of added elements
+     */
+    long added()
+    {
+        return tail.get();
+    }
+}
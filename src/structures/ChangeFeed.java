@@ -0,0 +1,132 @@
+package structures;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the most recent changes made to a DirectedGraph in a ring buffer,
+ * so that copies of the graph can catch up without copying the whole graph.
+ * Each change is stored in parallel arrays; GraphChange objects are only
+ * created when the changes are requested.
+ *
+ * Vertices are stored rather than indices, since the graph reuses the
+ * indices of removed vertices.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+class ChangeFeed<V> implements GraphListener<V>
+{
+    private static final GraphChange.Type[] TYPES = GraphChange.Type.values();
+
+    private final DirectedGraph<V> graph;
+    private final byte[] types;
+    private final Object[] sources;
+    private final Object[] destinations;
+    private final int[] weights;
+
+    private final long trackedFrom;
+    private long newest;
+    private int next;
+    private int count;
+
+    /**
+     * Creates a new, empty history for a graph.
+     *
+     * @param graph the graph to record changes from
+     * @param capacity the number of changes to keep
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    ChangeFeed(DirectedGraph<V> graph, int capacity)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("The change history must hold at least one change: " + capacity);
+        }
+
+        this.graph = graph;
+        types = new byte[capacity];
+        sources = new Object[capacity];
+        destinations = new Object[capacity];
+        weights = new int[capacity];
+        trackedFrom = graph.version();
+        newest = trackedFrom;
+    }
+
+    private void record(GraphChange.Type type, Object source, Object destination, int weight)
+    {
+        types[next] = (byte) type.ordinal();
+        sources[next] = source;
+        destinations[next] = destination;
+        weights[next] = weight;
+
+        next = (next + 1) % types.length;
+        count = Math.min(count + 1, types.length);
+        newest = graph.version();
+    }
+
+    /**
+     * Returns the changes made after a version, or a request to resync if
+     * some of those changes have already been dropped from the history.
+     *
+     * @param since the last version seen by the caller
+     * @return the changes made after the version
+     */
+    @SuppressWarnings("unchecked")
+    GraphChanges<V> changesSince(long since)
+    {
+        //changes are recorded for consecutive versions, ending at newest
+        if (since < trackedFrom || since < newest - count)
+        {
+            return GraphChanges.resyncRequired(newest);
+        }
+
+        int wanted = (int) (newest - since);
+        List<GraphChange<V>> changes = new ArrayList<>(wanted);
+        int slot = Math.floorMod(next - wanted, types.length);
+        for (long version = since + 1; version <= newest; version++)
+        {
+            changes.add(new GraphChange<>(version, TYPES[types[slot]], (V) sources[slot],
+                    (V) destinations[slot], weights[slot]));
+            slot = (slot + 1) % types.length;
+        }
+        return GraphChanges.of(newest, changes);
+    }
+
+    @Override
+    public void vertexAdded(V vertex, int index)
+    {
+        record(GraphChange.Type.VERTEX_ADDED, vertex, null, 0);
+    }
+
+    @Override
+    public void vertexRemoved(V vertex, int index)
+    {
+        record(GraphChange.Type.VERTEX_REMOVED, vertex, null, 0);
+    }
+
+    @Override
+    public void edgeAdded(int source, int destination, int weight)
+    {
+        record(GraphChange.Type.EDGE_ADDED, graph.vertexAt(source), graph.vertexAt(destination), weight);
+    }
+
+    @Override
+    public void edgeReweighted(int source, int destination, int weight)
+    {
+        record(GraphChange.Type.EDGE_REWEIGHTED, graph.vertexAt(source), graph.vertexAt(destination), weight);
+    }
+
+    @Override
+    public void edgeRemoved(int source, int destination)
+    {
+        record(GraphChange.Type.EDGE_REMOVED, graph.vertexAt(source), graph.vertexAt(destination), 0);
+    }
+
+    @Override
+    public void cleared()
+    {
+        record(GraphChange.Type.CLEARED, null, null, 0);
+    }
+}
@@ -0,0 +1,83 @@
+package structures;
+
+/**
+ * A matrix stored as one two-dimensional array, with space for every cell.
+ * Growing the matrix copies all of its rows.
+ *
+ * Rows start out as byte arrays, and every row is widened to short or int
+ * arrays the first time a weight is stored that does not fit.
+ *
+ * @author agent
+ * @version 1.0
+ */
+class DenseMatrix implements WeightMatrix
+{
+    private Object[] rows;
+    private int width;
+
+    /**
+     * Creates an empty matrix.
+     * @param capacity the number of rows (and columns)
+     */
+    DenseMatrix(int capacity)
+    {
+        width = NarrowCells.BYTE_WIDTH;
+        rows = new Object[capacity];
+        for (int row = 0; row < capacity; row++)
+        {
+            rows[row] = NarrowCells.allocate(width, capacity);
+        }
+    }
+
+    @Override
+    public int capacity()
+    {
+        return rows.length;
+    }
+
+    @Override
+    public int get(int row, int col)
+    {
+        return NarrowCells.get(rows[row], width, col);
+    }
+
+    @Override
+    public void set(int row, int col, int weight)
+    {
+        int needed = NarrowCells.widthFor(weight);
+        if (needed > width)
+        {
+            for (int i = 0; i < rows.length; i++)
+            {
+                rows[i] = NarrowCells.widen(rows[i], width, needed);
+            }
+            width = needed;
+        }
+        NarrowCells.set(rows[row], width, col, weight);
+    }
+
+    @Override
+    public void grow(int capacity)
+    {
+        Object[] larger = new Object[capacity];
+        for (int row = 0; row < capacity; row++)
+        {
+            larger[row] = row < rows.length
+                    ? NarrowCells.copyOf(rows[row], width, capacity)
+                    : NarrowCells.allocate(width, capacity);
+        }
+        rows = larger;
+    }
+
+    @Override
+    public WeightMatrix empty(int capacity)
+    {
+        return new DenseMatrix(capacity);
+    }
+
+    @Override
+    public int nextInRow(int row, int col)
+    {
+        return NarrowCells.next(rows[row], width, col, rows.length);
+    }
+}
@@ -1,6 +1,779 @@
 package structures;
 
-public class DirectedGraph<V>
+import graphs.Edge;
+import graphs.IGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * A directed, weighted graph that stores its edges in an adjacency matrix.
+ * Vertices are mapped to rows/columns of the matrix with a Bijection, and
+ * the indices of removed vertices are recycled with a stack.
+ *
+ * By default the matrix is one two-dimensional array. Use tiled() for a
+ * graph that only allocates the regions of the matrix holding edges.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class DirectedGraph<V> implements IGraph<V>
 {
+    private static final int INITIAL_CAPACITY = 10;
+    private static final double GROWTH_FACTOR = 1.4;
+    private static final int BATCH_SORT_THRESHOLD = 256;
+
+    private WeightMatrix matrix;
+    private Bijection<V, Integer> indices;
+    private Stack<Integer> available;
+    private int edgeSize;
+    private long version;
+    private int vertexRemovals;
+    private List<GraphListener<V>> listeners;
+    private ChangeFeed<V> changeFeed;
+
+    /**
+     * Creates a new empty graph.
+     */
+    public DirectedGraph()
+    {
+        this(new DenseMatrix(INITIAL_CAPACITY));
+    }
+
+    private DirectedGraph(WeightMatrix matrix)
+    {
+        this.matrix = matrix;
+        indices = new Bijection<>();
+        available = new Stack<>();
+        available.push(0);
+        listeners = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new empty graph with a tiled matrix. The matrix is split
+     * into square tiles that are allocated when their first edge is added
+     * and released when their last edge is removed, so large graphs with
+     * clustered edges need far less space than a full matrix. Growing the
+     * matrix never copies existing tiles.
+     *
+     * @param <V> the type of vertices in the graph
+     * @return a new empty graph
+     */
+    public static <V> DirectedGraph<V> tiled()
+    {
+        return new DirectedGraph<>(new TiledMatrix(INITIAL_CAPACITY));
+    }
+
+    @Override
+    public boolean addVertex(V vertex)
+    {
+        if (indices.containsKey(vertex))
+        {
+            return false;
+        }
+
+        //pull the next free index, making sure another one is ready
+        int index = available.pop();
+        if (available.isEmpty())
+        {
+            available.push(index + 1);
+        }
+
+        if (index >= matrix.capacity())
+        {
+            matrix.grow((int) Math.ceil(matrix.capacity() * GROWTH_FACTOR));
+        }
+
+        indices.add(vertex, index);
+        version++;
+        for (GraphListener<V> listener : listeners)
+        {
+            listener.vertexAdded(vertex, index);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(V source, V destination, int weight)
+    {
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + weight);
+        }
+
+        return addEdgeAt(requireIndex(source), requireIndex(destination), weight);
+    }
+
+    /**
+     * Changes the weight of an edge that is already in the graph.
+     *
+     * @param source the source vertex of the edge
+     * @param destination the destination vertex of the edge
+     * @param weight the new edge weight
+     * @return true if the edge weight was changed, or false if the edge is
+     *         not in the graph or already has the weight
+     * @throws IllegalArgumentException when given a non-positive edge weight
+     * @throws IllegalArgumentException when given a source or destination vertex that does not exist
+     */
+    public boolean updateEdgeWeight(V source, V destination, int weight)
+    {
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + weight);
+        }
+
+        return reweightEdgeAt(requireIndex(source), requireIndex(destination), weight);
+    }
+
+    private int requireIndex(V vertex)
+    {
+        Integer index = indices.getValue(vertex);
+        if (index == null)
+        {
+            throw new IllegalArgumentException("Vertex is not in the graph: " + vertex);
+        }
+        return index;
+    }
+
+    @Override
+    public int vertexSize()
+    {
+        return indices.keySet().size();
+    }
+
+    @Override
+    public int edgeSize()
+    {
+        return edgeSize;
+    }
+
+    @Override
+    public boolean containsVertex(V vertex)
+    {
+        return indices.containsKey(vertex);
+    }
+
+    @Override
+    public boolean containsEdge(V source, V destination)
+    {
+        return edgeWeight(source, destination) != -1;
+    }
+
+    @Override
+    public int edgeWeight(V source, V destination)
+    {
+        Integer row = indices.getValue(source);
+        Integer col = indices.getValue(destination);
+        if (row == null || col == null)
+        {
+            return -1;
+        }
+        int weight = matrix.get(row, col);
+        return weight == 0 ? -1 : weight;
+    }
+
+    /**
+     * Looks up the weights of many edges at once. The edge at position i is
+     * (sources.get(i), destinations.get(i)), and its weight is written to
+     * out[i], or -1 if the edge is not in the graph.
+     *
+     * @param sources the source vertex of each edge
+     * @param destinations the destination vertex of each edge
+     * @param out receives the weight of each edge
+     * @throws IllegalArgumentException when the lists and array are different lengths
+     */
+    public void edgeWeights(List<V> sources, List<V> destinations, int[] out)
+    {
+        if (sources.size() != destinations.size())
+        {
+            throw new IllegalArgumentException("Expected as many sources as destinations: "
+                    + sources.size() + " != " + destinations.size());
+        }
+        edgeWeights(indicesOf(sources), indicesOf(destinations), out);
+    }
+
+    /**
+     * Reports whether each of many edges is in the graph. The edge at
+     * position i is (sources.get(i), destinations.get(i)).
+     *
+     * @param sources the source vertex of each edge
+     * @param destinations the destination vertex of each edge
+     * @param out receives true for each edge in the graph, or false otherwise
+     * @throws IllegalArgumentException when the lists and array are different lengths
+     */
+    public void containsEdges(List<V> sources, List<V> destinations, boolean[] out)
+    {
+        int[] weights = new int[out.length];
+        edgeWeights(sources, destinations, weights);
+        for (int i = 0; i < out.length; i++)
+        {
+            out[i] = weights[i] != -1;
+        }
+    }
+
+    /**
+     * Finds the matrix index of each vertex in a list, for use with the
+     * index-level edgeWeights(). A vertex that appears several times in a
+     * row is only looked up once. The indices stay valid until a vertex is
+     * removed from the graph.
+     *
+     * @param vertices the vertices to search for
+     * @return the index of each vertex, or -1 for vertices not in the graph
+     */
+    public int[] indicesOf(List<V> vertices)
+    {
+        int[] result = new int[vertices.size()];
+        V last = null;
+        int lastIndex = -1;
+        int position = 0;
+        for (V vertex : vertices)
+        {
+            if (vertex != last || position == 0)
+            {
+                last = vertex;
+                lastIndex = indexOf(vertex);
+            }
+            result[position++] = lastIndex;
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the weights of many edges at once, given the matrix indices
+     * from indicesOf(). The edge at position i is (sourceIndices[i],
+     * destinationIndices[i]), and its weight is written to out[i], or -1
+     * if there is no such edge. Large batches are visited in row order, so
+     * that each row of the matrix is loaded once.
+     *
+     * @param sourceIndices the source index of each edge
+     * @param destinationIndices the destination index of each edge
+     * @param out receives the weight of each edge
+     * @throws IllegalArgumentException when the arrays are different lengths
+     */
+    public void edgeWeights(int[] sourceIndices, int[] destinationIndices, int[] out)
+    {
+        int count = sourceIndices.length;
+        if (destinationIndices.length != count || out.length != count)
+        {
+            throw new IllegalArgumentException("Expected arrays of the same length: " + count + ", "
+                    + destinationIndices.length + ", " + out.length);
+        }
+
+        if (count < BATCH_SORT_THRESHOLD)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                out[i] = weightOrMissing(sourceIndices[i], destinationIndices[i]);
+            }
+            return;
+        }
+
+        //sort the probes by row (keeping their position in the low bits)
+        long[] probes = new long[count];
+        for (int i = 0; i < count; i++)
+        {
+            probes[i] = ((long) sourceIndices[i] << 32) | i;
+        }
+        Arrays.sort(probes);
+
+        for (long probe : probes)
+        {
+            int i = (int) probe;
+            out[i] = weightOrMissing(sourceIndices[i], destinationIndices[i]);
+        }
+    }
+
+    private int weightOrMissing(int row, int col)
+    {
+        if (row < 0 || col < 0 || row >= matrix.capacity() || col >= matrix.capacity())
+        {
+            return -1;
+        }
+        int weight = matrix.get(row, col);
+        return weight == 0 ? -1 : weight;
+    }
+
+    /**
+     * Returns the out-edges of a vertex, as a map from each destination
+     * vertex to the weight of the edge.
+     *
+     * @param vertex the source vertex
+     * @return a new map of destinations to weights
+     * @throws IllegalArgumentException when given a vertex that does not exist
+     */
+    public Map<V, Integer> neighbors(V vertex)
+    {
+        int row = requireIndex(vertex);
+        Map<V, Integer> neighbors = new LinkedHashMap<>();
+        for (int col = matrix.nextInRow(row, 0); col != -1; col = matrix.nextInRow(row, col + 1))
+        {
+            neighbors.put(indices.getKey(col), matrix.get(row, col));
+        }
+        return neighbors;
+    }
+
+    /**
+     * Finds the shortest (lowest total weight) paths from a vertex to
+     * every other vertex in the graph.
+     *
+     * @param source the vertex the paths start from
+     * @return the shortest paths from the vertex
+     * @throws IllegalArgumentException when given a vertex that does not exist
+     */
+    public ShortestPaths<V> shortestPaths(V source)
+    {
+        return new ShortestPaths<>(this, requireIndex(source));
+    }
+
+    @Override
+    public Set<V> vertices()
+    {
+        return new HashSet<>(indices.keySet());
+    }
+
+    @Override
+    public Set<Edge<V>> edges()
+    {
+        EdgeSet<V> edges = new EdgeSet<>(vertexTable(), this::indexOf, edgeSize);
+        for (int row = 0; row < matrix.capacity(); row++)
+        {
+            for (int col = matrix.nextInRow(row, 0); col != -1; col = matrix.nextInRow(row, col + 1))
+            {
+                edges.put(row, col, matrix.get(row, col));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Compiles the graph into an immutable copy for read-heavy use. The
+     * frozen graph renumbers the vertices densely and stores the edges in
+     * compressed sparse row form, so later changes to this graph are not
+     * seen by the frozen copy.
+     *
+     * @return a frozen copy of the graph
+     */
+    public FrozenGraph<V> freeze()
+    {
+        //assign dense indices to the used rows of the matrix, in index order
+        Object[] sparseTable = vertexTable();
+        int[] denseIndex = new int[sparseTable.length];
+        Object[] denseTable = new Object[vertexSize()];
+        int next = 0;
+        for (int i = 0; i < sparseTable.length; i++)
+        {
+            denseIndex[i] = -1;
+            if (indices.containsValue(i))
+            {
+                denseIndex[i] = next;
+                denseTable[next++] = sparseTable[i];
+            }
+        }
+
+        int[] offsets = new int[denseTable.length + 1];
+        int[] targets = new int[edgeSize];
+        int[] weights = new int[edgeSize];
+        int position = 0;
+        for (int row = 0; row < matrix.capacity(); row++)
+        {
+            if (denseIndex[row] == -1)
+            {
+                continue;
+            }
+
+            //columns are visited in index order and dense indices keep that
+            //order, so each row comes out sorted
+            for (int col = matrix.nextInRow(row, 0); col != -1; col = matrix.nextInRow(row, col + 1))
+            {
+                targets[position] = denseIndex[col];
+                weights[position] = matrix.get(row, col);
+                position++;
+            }
+            offsets[denseIndex[row] + 1] = position;
+        }
+
+        return new FrozenGraph<>(denseTable, offsets, targets, weights);
+    }
+
+    /**
+     * Returns a view of the subgraph induced by a set of vertices: the
+     * vertices in the set, and every edge between two of them. The view
+     * shares the matrix of this graph, so changes to edges made through
+     * either graph are seen by the other. Vertices cannot be added to or
+     * removed from the view, and the view can no longer be used once one
+     * of its own vertices is removed from this graph (other vertices can
+     * be added and removed freely). Use SubgraphView.materialize() to get
+     * an independent copy.
+     *
+     * @param subset the vertices of the subgraph
+     * @return a view of the subgraph
+     * @throws IllegalArgumentException when given a vertex that does not exist
+     */
+    public SubgraphView<V> subgraph(Set<V> subset)
+    {
+        int[] localToParent = new int[subset.size()];
+        int size = 0;
+        for (V vertex : subset)
+        {
+            localToParent[size++] = requireIndex(vertex);
+        }
+        Arrays.sort(localToParent);
+        return new SubgraphView<>(this, localToParent);
+    }
+
+    @Override
+    public boolean removeVertex(V vertex)
+    {
+        Integer index = indices.getValue(vertex);
+        if (index == null)
+        {
+            return false;
+        }
+
+        edgeSize -= matrix.clearIndex(index);
+
+        indices.removeKey(vertex);
+        available.push(index);
+        vertexRemovals++;
+        version++;
+        for (GraphListener<V> listener : listeners)
+        {
+            listener.vertexRemoved(vertex, index);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(V source, V destination)
+    {
+        Integer row = indices.getValue(source);
+        Integer col = indices.getValue(destination);
+        if (row == null || col == null)
+        {
+            return false;
+        }
+        return removeEdgeAt(row, col);
+    }
+
+    @Override
+    public void clear()
+    {
+        matrix = matrix.empty(INITIAL_CAPACITY);
+        indices.clear();
+        available.clear();
+        available.push(0);
+        edgeSize = 0;
+        vertexRemovals++;
+        version++;
+        for (GraphListener<V> listener : listeners)
+        {
+            listener.cleared();
+        }
+    }
+
+    /**
+     * Returns the version of the graph. The version starts at zero and goes
+     * up by one with every change made to the graph. A graph recovered by a
+     * GraphJournal carries on from the version it was saved at.
+     *
+     * @return the current version
+     */
+    public long version()
+    {
+        return version;
+    }
+
+    /**
+     * Starts keeping a bounded history of the changes made to the graph, so
+     * that copies of the graph can catch up with changesSince(). Only the
+     * most recent changes are kept. Calling this again replaces the history.
+     *
+     * @param capacity the number of changes to keep
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    public void trackChanges(int capacity)
+    {
+        if (changeFeed != null)
+        {
+            removeListener(changeFeed);
+        }
+        changeFeed = new ChangeFeed<>(this, capacity);
+        addListener(changeFeed);
+    }
+
+    /**
+     * Returns the changes made to the graph after a version, in the order
+     * they were made. If the changes are no longer kept (or were never
+     * tracked) the result asks the caller to copy the whole graph again.
+     *
+     * The same is asked when the version is newer than the graph, since the
+     * caller must have copied a different graph.
+     *
+     * @param since the last version seen by the caller
+     * @return the changes made after the version
+     * @throws IllegalArgumentException when the version is negative
+     */
+    public GraphChanges<V> changesSince(long since)
+    {
+        if (since < 0)
+        {
+            throw new IllegalArgumentException("Unknown graph version: " + since);
+        }
+        if (since > version)
+        {
+            return GraphChanges.resyncRequired(version);
+        }
+        if (since == version)
+        {
+            return GraphChanges.upToDate(version);
+        }
+        if (changeFeed == null)
+        {
+            return GraphChanges.resyncRequired(version);
+        }
+        return changeFeed.changesSince(since);
+    }
+
+    //index-level access, used by the other structures in this package
+
+    /**
+     * Returns the number of vertices removed from the graph so far (counting
+     * a clear as a removal). Views over the graph use this to notice that
+     * their indices may have been reused.
+     *
+     * @return the removal count
+     */
+    int vertexRemovals()
+    {
+        return vertexRemovals;
+    }
+
+    /**
+     * Returns the number of rows (and columns) in the matrix.
+     * @return the matrix capacity
+     */
+    int capacity()
+    {
+        return matrix.capacity();
+    }
+
+    /**
+     * Finds the matrix index of a vertex.
+     *
+     * @param vertex the vertex to search for
+     * @return the index of the vertex, or -1 if it is not in the graph
+     */
+    @SuppressWarnings("unchecked")
+    int indexOf(Object vertex)
+    {
+        Integer index = indices.getValue((V) vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Finds the vertex stored at a matrix index.
+     *
+     * @param index the index to search for
+     * @return the vertex, or null if the index is not in use
+     */
+    V vertexAt(int index)
+    {
+        return indices.getKey(index);
+    }
+
+    /**
+     * Returns a copy of the vertex mapping as a dense table, where each
+     * vertex is stored at its matrix index and free indices are null.
+     *
+     * @return a table of vertices by index
+     */
+    Object[] vertexTable()
+    {
+        Object[] table = new Object[matrix.capacity()];
+        for (V vertex : indices.keySet())
+        {
+            table[indices.getValue(vertex)] = vertex;
+        }
+        return table;
+    }
+
+    /**
+     * Returns the free indices in the order they are stored on the stack,
+     * with the top of the stack last.
+     *
+     * @return the free indices
+     */
+    int[] availableIndices()
+    {
+        int[] free = new int[available.size()];
+        for (int i = 0; i < free.length; i++)
+        {
+            free[i] = available.get(i);
+        }
+        return free;
+    }
+
+    /**
+     * Returns the weight stored in a cell of the matrix.
+     *
+     * @param row the index of the source vertex
+     * @param col the index of the destination vertex
+     * @return the edge weight, or 0 if there is no edge
+     */
+    int weightAt(int row, int col)
+    {
+        return matrix.get(row, col);
+    }
+
+    /**
+     * Finds the next edge in a row of the matrix, skipping empty regions.
+     *
+     * @param row the index of the source vertex
+     * @param col the column to start searching from
+     * @return the index of the destination vertex, or -1 if there are no more edges
+     */
+    int nextEdgeInRow(int row, int col)
+    {
+        return matrix.nextInRow(row, col);
+    }
+
+    /**
+     * Adds an edge between two indices in use by the graph.
+     *
+     * @param row the index of the source vertex
+     * @param col the index of the destination vertex
+     * @param weight the (positive) edge weight
+     * @return true if the edge was added, or false if it already exists
+     */
+    boolean addEdgeAt(int row, int col, int weight)
+    {
+        if (matrix.get(row, col) != 0)
+        {
+            return false;
+        }
+
+        matrix.set(row, col, weight);
+        edgeSize++;
+        version++;
+        for (GraphListener<V> listener : listeners)
+        {
+            listener.edgeAdded(row, col, weight);
+        }
+        return true;
+    }
+
+    /**
+     * Changes the weight of an edge between two indices in use by the graph.
+     *
+     * @param row the index of the source vertex
+     * @param col the index of the destination vertex
+     * @param weight the new (positive) edge weight
+     * @return true if the weight was changed, or false if there is no edge
+     *         or it already has the weight
+     */
+    boolean reweightEdgeAt(int row, int col, int weight)
+    {
+        int current = matrix.get(row, col);
+        if (current == 0 || current == weight)
+        {
+            return false;
+        }
+
+        matrix.set(row, col, weight);
+        version++;
+        for (GraphListener<V> listener : listeners)
+        {
+            listener.edgeReweighted(row, col, weight);
+        }
+        return true;
+    }
+
+    /**
+     * Removes an edge between two indices in use by the graph.
+     *
+     * @param row the index of the source vertex
+     * @param col the index of the destination vertex
+     * @return true if the edge was removed, or false if it was not found
+     */
+    boolean removeEdgeAt(int row, int col)
+    {
+        if (matrix.get(row, col) == 0)
+        {
+            return false;
+        }
+
+        matrix.set(row, col, 0);
+        edgeSize--;
+        version++;
+        for (GraphListener<V> listener : listeners)
+        {
+            listener.edgeRemoved(row, col);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the contents of the graph with an empty matrix and a saved
+     * index layout. Listeners are not told about the change.
+     *
+     * @param capacity the number of rows (and columns) in the matrix
+     * @param table the vertices by index, with null for free indices
+     * @param free the free indices, with the top of the stack last
+     */
+    void restore(int capacity, Object[] table, int[] free)
+    {
+        matrix = matrix.empty(capacity);
+        indices.clear();
+        available.clear();
+        edgeSize = 0;
+        vertexRemovals++;
+
+        for (int i = 0; i < table.length; i++)
+        {
+            if (table[i] != null)
+            {
+                @SuppressWarnings("unchecked")
+                V vertex = (V) table[i];
+                indices.add(vertex, i);
+            }
+        }
+        for (int index : free)
+        {
+            available.push(index);
+        }
+    }
+
+    /**
+     * Sets the version of a graph rebuilt from a snapshot. Listeners are not
+     * told about the change.
+     *
+     * @param version the version the snapshot was taken at
+     */
+    void restoreVersion(long version)
+    {
+        this.version = version;
+    }
+
+    void addListener(GraphListener<V> listener)
+    {
+        listeners.add(listener);
+    }
+
+    void removeListener(GraphListener<V> listener)
+    {
+        listeners.remove(listener);
+    }
 
+    @Override
+    public String toString()
+    {
+        return "vertices: " + vertexSize() + ", edges: " + edgeSize;
+    }
 }
@@ -0,0 +1,490 @@
+package structures;
+
+import graphs.Edge;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * A compact set of edges returned from a matrix graph. Each edge is stored
+ * as a packed long (source index in the high bits, destination index in the
+ * low bits) with the weights kept in a parallel array. Edge objects are only
+ * created while iterating over the set.
+ *
+ * The graph fills the set in row order, so the keys start out as a sorted
+ * array of exactly the right size, searched with a binary search. Removed
+ * edges keep their key and are marked in a bit set. The first add() that
+ * doesn't fit at the end of the array turns it into an open-addressing
+ * table.
+ * Edges whose vertices were not in the graph are kept in a separate set.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of the vertices
+ */
+class EdgeSet<V> extends AbstractSet<Edge<V>>
+{
+    private static final long EMPTY = -1L;
+    private static final long DELETED = -2L;
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.5;
+
+    private final Object[] vertexTable;
+    private final ToIntFunction<Object> indexLookup;
+    private Map<Object, Integer> snapshotIndices;
+    private Set<Edge<V>> overflow;
+
+    //sorted: keys[0, used) ascending, otherwise an open-addressing table
+    private boolean hashed;
+    private long[] keys;
+    private int[] weights;
+    private int used;
+    private BitSet removed;
+    private int size;
+    private int deleted;
+    private int modCount;
+
+    /**
+     * Creates a new empty edge set.
+     *
+     * @param vertexTable the vertices of the graph by index, this array is
+     *                    owned by the set after the call
+     * @param indexLookup finds the index of a vertex in the graph, or -1
+     * @param expectedSize the number of edges that will be put in the set
+     */
+    EdgeSet(Object[] vertexTable, ToIntFunction<Object> indexLookup, int expectedSize)
+    {
+        this.vertexTable = vertexTable;
+        this.indexLookup = indexLookup;
+        keys = new long[expectedSize];
+        weights = new int[expectedSize];
+    }
+
+    private static long pack(int source, int destination)
+    {
+        return ((long) source << 32) | (destination & 0xFFFFFFFFL);
+    }
+
+    private static int source(long key)
+    {
+        return (int) (key >>> 32);
+    }
+
+    private static int destination(long key)
+    {
+        return (int) key;
+    }
+
+    private int home(long key)
+    {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    /**
+     * Adds an edge by index, replacing the weight if it is already present.
+     * Edges put in ascending (source, destination) order are appended to
+     * the sorted array.
+     *
+     * @param source the index of the source vertex
+     * @param destination the index of the destination vertex
+     * @param weight the edge weight
+     * @return true if the edge was not in the set before
+     */
+    boolean put(int source, int destination, int weight)
+    {
+        long key = pack(source, destination);
+        if (!hashed)
+        {
+            if (used == 0 || key > keys[used - 1])
+            {
+                if (used == keys.length)
+                {
+                    keys = Arrays.copyOf(keys, Math.max(MIN_CAPACITY, used << 1));
+                    weights = Arrays.copyOf(weights, keys.length);
+                }
+                keys[used] = key;
+                weights[used] = weight;
+                used++;
+                size++;
+                modCount++;
+                return true;
+            }
+
+            int slot = Arrays.binarySearch(keys, 0, used, key);
+            if (slot >= 0)
+            {
+                boolean added = !live(slot);
+                weights[slot] = weight;
+                if (added)
+                {
+                    removed.clear(slot);
+                    size++;
+                    modCount++;
+                }
+                return added;
+            }
+            toTable();
+        }
+
+        if (size + deleted + 1 > keys.length * MAX_LOAD)
+        {
+            rehash(size + 1 > keys.length * MAX_LOAD ? keys.length << 1 : keys.length);
+        }
+
+        int mask = keys.length - 1;
+        int slot = home(key);
+        int tombstone = -1;
+        while (keys[slot] != EMPTY)
+        {
+            if (keys[slot] == key)
+            {
+                weights[slot] = weight;
+                return false;
+            }
+            if (keys[slot] == DELETED && tombstone == -1)
+            {
+                tombstone = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (tombstone != -1)
+        {
+            slot = tombstone;
+            deleted--;
+        }
+        keys[slot] = key;
+        weights[slot] = weight;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    private void toTable()
+    {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < size + 1)
+        {
+            capacity <<= 1;
+        }
+        rehash(capacity);
+        hashed = true;
+        removed = null;
+        used = 0;
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        int[] oldWeights = weights;
+        int oldLength = slots();
+        keys = new long[capacity];
+        weights = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        deleted = 0;
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldLength; i++)
+        {
+            if (oldKeys[i] >= 0 && (removed == null || !removed.get(i)))
+            {
+                int slot = home(oldKeys[i]);
+                while (keys[slot] != EMPTY)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                weights[slot] = oldWeights[i];
+            }
+        }
+    }
+
+    //the number of slots to look at when scanning the arrays
+    private int slots()
+    {
+        return hashed ? keys.length : used;
+    }
+
+    private boolean live(int slot)
+    {
+        return hashed ? keys[slot] >= 0 : removed == null || !removed.get(slot);
+    }
+
+    private int find(long key)
+    {
+        if (!hashed)
+        {
+            int slot = Arrays.binarySearch(keys, 0, used, key);
+            return slot >= 0 && live(slot) ? slot : -1;
+        }
+
+        int mask = keys.length - 1;
+        int slot = home(key);
+        while (keys[slot] != EMPTY)
+        {
+            if (keys[slot] == key)
+            {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int resolve(Object vertex)
+    {
+        //decode through the graph first, then check that the graph
+        //hasn't moved the vertex since this set was built
+        int index = indexLookup.applyAsInt(vertex);
+        if (index >= 0 && index < vertexTable.length && Objects.equals(vertexTable[index], vertex))
+        {
+            return index;
+        }
+
+        if (snapshotIndices == null)
+        {
+            snapshotIndices = new HashMap<>();
+            for (int i = 0; i < vertexTable.length; i++)
+            {
+                if (vertexTable[i] != null)
+                {
+                    snapshotIndices.put(vertexTable[i], i);
+                }
+            }
+        }
+        Integer snapshotIndex = snapshotIndices.get(vertex);
+        return snapshotIndex == null ? -1 : snapshotIndex;
+    }
+
+    /**
+     * Finds the packed key of an edge, or -1 if either vertex was not in
+     * the graph when this set was created.
+     */
+    private long keyOf(Edge<?> edge)
+    {
+        int source = resolve(edge.getSource());
+        int destination = resolve(edge.getDestination());
+        if (source < 0 || destination < 0)
+        {
+            return -1;
+        }
+        return pack(source, destination);
+    }
+
+    @Override
+    public boolean contains(Object other)
+    {
+        if (!(other instanceof Edge))
+        {
+            return false;
+        }
+
+        long key = keyOf((Edge<?>) other);
+        if (key == -1)
+        {
+            return overflow != null && overflow.contains(other);
+        }
+        return find(key) != -1;
+    }
+
+    /**
+     * Adds an edge to the set. Edges between vertices that were not in the
+     * graph when this set was created are kept apart from the others.
+     *
+     * @param edge the new edge
+     * @return true if the edge was added, otherwise false
+     */
+    @Override
+    public boolean add(Edge<V> edge)
+    {
+        long key = keyOf(edge);
+        if (key == -1)
+        {
+            if (overflow == null)
+            {
+                overflow = new HashSet<>();
+            }
+            if (!overflow.add(edge))
+            {
+                return false;
+            }
+            modCount++;
+            return true;
+        }
+
+        //match HashSet, which keeps the existing element on duplicates
+        if (find(key) != -1)
+        {
+            return false;
+        }
+        return put(source(key), destination(key), edge.getWeight());
+    }
+
+    @Override
+    public boolean remove(Object other)
+    {
+        if (!(other instanceof Edge))
+        {
+            return false;
+        }
+
+        long key = keyOf((Edge<?>) other);
+        if (key == -1)
+        {
+            if (overflow == null || !overflow.remove(other))
+            {
+                return false;
+            }
+            modCount++;
+            return true;
+        }
+
+        int slot = find(key);
+        if (slot == -1)
+        {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    private void removeAt(int slot)
+    {
+        if (hashed)
+        {
+            keys[slot] = DELETED;
+            deleted++;
+        }
+        else
+        {
+            if (removed == null)
+            {
+                removed = new BitSet(used);
+            }
+            removed.set(slot);
+        }
+        weights[slot] = 0;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public int size()
+    {
+        return overflow == null ? size : size + overflow.size();
+    }
+
+    @Override
+    public void clear()
+    {
+        hashed = false;
+        keys = new long[0];
+        weights = new int[0];
+        used = 0;
+        removed = null;
+        size = 0;
+        deleted = 0;
+        overflow = null;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Edge<V>> iterator()
+    {
+        return new EdgeIterator();
+    }
+
+    private class EdgeIterator implements Iterator<Edge<V>>
+    {
+        private int next = advance(0);
+        private int last = -1;
+        private Iterator<Edge<V>> extra;
+        private int expectedModCount = modCount;
+
+        private int advance(int slot)
+        {
+            while (slot < slots() && !live(slot))
+            {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (next < slots())
+            {
+                return true;
+            }
+            if (extra == null && overflow != null)
+            {
+                extra = overflow.iterator();
+            }
+            return extra != null && extra.hasNext();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Edge<V> next()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+
+            if (next >= slots())
+            {
+                last = Integer.MAX_VALUE;
+                return extra.next();
+            }
+
+            last = next;
+            next = advance(next + 1);
+
+            long key = keys[last];
+            return new Edge<>((V) vertexTable[source(key)],
+                    (V) vertexTable[destination(key)], weights[last]);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (last == -1)
+            {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+
+            if (last == Integer.MAX_VALUE)
+            {
+                extra.remove();
+                modCount++;
+            }
+            else
+            {
+                removeAt(last);
+            }
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package structures;
+
+/**
+ * A change to one edge, sent to a GraphIngestor: either setting the weight
+ * of an edge (adding it, and its vertices, if needed) or removing it.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public final class EdgeUpdate<V>
+{
+    private final V source;
+    private final V destination;
+    private final int weight;
+
+    private EdgeUpdate(V source, V destination, int weight)
+    {
+        this.source = source;
+        this.destination = destination;
+        this.weight = weight;
+    }
+
+    /**
+     * Creates an update that adds an edge, or changes its weight if the
+     * edge already exists. Missing vertices are added to the graph.
+     *
+     * @param source the source vertex of the edge
+     * @param destination the destination vertex of the edge
+     * @param weight the edge weight
+     * @param <V> the type of vertices in the graph
+     * @return the update
+     * @throws IllegalArgumentException when given a non-positive edge weight
+     */
+    public static <V> EdgeUpdate<V> upsert(V source, V destination, int weight)
+    {
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + weight);
+        }
+        return new EdgeUpdate<>(source, destination, weight);
+    }
+
+    /**
+     * Creates an update that removes an edge, if it exists.
+     *
+     * @param source the source vertex of the edge
+     * @param destination the destination vertex of the edge
+     * @param <V> the type of vertices in the graph
+     * @return the update
+     */
+    public static <V> EdgeUpdate<V> remove(V source, V destination)
+    {
+        return new EdgeUpdate<>(source, destination, 0);
+    }
+
+    /**
+     * Getter for the source vertex.
+     * @return the source vertex of the edge
+     */
+    public V getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Getter for the destination vertex.
+     * @return the destination vertex of the edge
+     */
+    public V getDestination()
+    {
+        return destination;
+    }
+
+    /**
+     * Getter for the new edge weight.
+     * @return the weight, or 0 if the edge is being removed
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Reports whether this update removes its edge.
+     * @return true for a removal, or false for an upsert
+     */
+    public boolean isRemoval()
+    {
+        return weight == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return isRemoval()
+                ? "remove " + source + " => " + destination
+                : "upsert " + source + " => " + destination + " (" + weight + ")";
+    }
+}
@@ -0,0 +1,209 @@
+package structures;
+
+import graphs.Edge;
+import graphs.IGraph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * An immutable, read-only graph compiled from a DirectedGraph. Edges are
+ * stored in compressed sparse row (CSR) form: the out-edges of the vertex at
+ * index i are found at positions offsets[i] to offsets[i + 1] - 1 of the
+ * targets and weights arrays, sorted by target index.
+ *
+ * All fields are final and never modified after construction, so a frozen
+ * graph can be shared across threads without any locking. Methods that would
+ * change the graph throw an UnsupportedOperationException.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public final class FrozenGraph<V> implements IGraph<V>
+{
+    private final Object[] vertexTable;
+    private final int[] slots;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    /**
+     * Creates a new frozen graph from CSR arrays. The arrays are owned by the
+     * graph after the call.
+     *
+     * @param vertexTable the vertices by dense index
+     * @param offsets the start of each row in the targets array, with one
+     *                extra entry marking the end of the last row
+     * @param targets the destination index of each edge, sorted per row
+     * @param weights the weight of each edge
+     */
+    FrozenGraph(Object[] vertexTable, int[] offsets, int[] targets, int[] weights)
+    {
+        this.vertexTable = vertexTable;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+
+        //a small open-addressing table from vertex to index (stored as index + 1)
+        int capacity = Integer.highestOneBit(Math.max(4, vertexTable.length * 2 - 1)) << 1;
+        slots = new int[capacity];
+        for (int i = 0; i < vertexTable.length; i++)
+        {
+            int slot = home(vertexTable[i]);
+            while (slots[slot] != 0)
+            {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private int home(Object vertex)
+    {
+        int hash = vertex == null ? 0 : vertex.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (slots.length - 1);
+    }
+
+    /**
+     * Finds the dense index of a vertex in the frozen graph.
+     *
+     * @param vertex the vertex to search for
+     * @return the index of the vertex, or -1 if it is not in the graph
+     */
+    public int indexOf(Object vertex)
+    {
+        int slot = home(vertex);
+        while (slots[slot] != 0)
+        {
+            int index = slots[slot] - 1;
+            if (vertexTable[index] == null ? vertex == null : vertexTable[index].equals(vertex))
+            {
+                return index;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the vertex at a dense index of the frozen graph.
+     *
+     * @param index the index of the vertex
+     * @return the vertex at the index
+     * @throws IndexOutOfBoundsException when the index is not in the graph
+     */
+    @SuppressWarnings("unchecked")
+    public V vertexAt(int index)
+    {
+        return (V) vertexTable[index];
+    }
+
+    private int findEdge(V source, V destination)
+    {
+        int row = indexOf(source);
+        int col = indexOf(destination);
+        if (row == -1 || col == -1)
+        {
+            return -1;
+        }
+
+        int position = Arrays.binarySearch(targets, offsets[row], offsets[row + 1], col);
+        return position < 0 ? -1 : position;
+    }
+
+    @Override
+    public boolean addVertex(V vertex)
+    {
+        throw new UnsupportedOperationException("A frozen graph cannot be modified");
+    }
+
+    @Override
+    public boolean addEdge(V source, V destination, int weight)
+    {
+        throw new UnsupportedOperationException("A frozen graph cannot be modified");
+    }
+
+    @Override
+    public int vertexSize()
+    {
+        return vertexTable.length;
+    }
+
+    @Override
+    public int edgeSize()
+    {
+        return targets.length;
+    }
+
+    @Override
+    public boolean containsVertex(V vertex)
+    {
+        return indexOf(vertex) != -1;
+    }
+
+    @Override
+    public boolean containsEdge(V source, V destination)
+    {
+        return findEdge(source, destination) != -1;
+    }
+
+    @Override
+    public int edgeWeight(V source, V destination)
+    {
+        int position = findEdge(source, destination);
+        return position == -1 ? -1 : weights[position];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<V> vertices()
+    {
+        Set<V> vertices = new HashSet<>();
+        for (Object vertex : vertexTable)
+        {
+            vertices.add((V) vertex);
+        }
+        return vertices;
+    }
+
+    @Override
+    public Set<Edge<V>> edges()
+    {
+        //the vertex table never changes, so the edge set can share it
+        EdgeSet<V> edges = new EdgeSet<>(vertexTable, this::indexOf, targets.length);
+        for (int row = 0; row < vertexTable.length; row++)
+        {
+            for (int i = offsets[row]; i < offsets[row + 1]; i++)
+            {
+                edges.put(row, targets[i], weights[i]);
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public boolean removeVertex(V vertex)
+    {
+        throw new UnsupportedOperationException("A frozen graph cannot be modified");
+    }
+
+    @Override
+    public boolean removeEdge(V source, V destination)
+    {
+        throw new UnsupportedOperationException("A frozen graph cannot be modified");
+    }
+
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("A frozen graph cannot be modified");
+    }
+
+    @Override
+    public String toString()
+    {
+        return "vertices: " + vertexSize() + ", edges: " + edgeSize() + " (frozen)";
+    }
+}
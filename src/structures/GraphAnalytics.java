@@ -0,0 +1,443 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Computes triangle counts, clustering coefficients and k-hop reach over a
+ * snapshot of a DirectedGraph. The snapshot renumbers the vertices densely
+ * and stores each row (out-edges) and column (in-edges) of the weight matrix
+ * as packed bits in a long[], so set intersections become an AND and a
+ * Long.bitCount() over 64 vertices at a time. Work is split over rows with
+ * a ForkJoinPool.
+ *
+ * Self-loops are ignored by every measure, and edge weights are not used.
+ * Changes made to the graph after the snapshot is taken are not seen.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class GraphAnalytics<V>
+{
+    private static final int ROWS_PER_TASK = 32;
+    private static final int MAX_VERTICES = maxVertices();
+
+    private final ForkJoinPool pool;
+    private final Object[] vertexTable;
+    private final Map<V, Integer> denseIndices;
+    private final int size;
+    private final int words;
+    private final long[] out;
+    private final long[] in;
+
+    /**
+     * Takes a snapshot of a graph, using the common ForkJoinPool.
+     * @param graph the graph to analyze
+     * @throws IllegalArgumentException when the graph has too many vertices
+     *                                  for its bit rows to fit in an array
+     */
+    public GraphAnalytics(DirectedGraph<V> graph)
+    {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Takes a snapshot of a graph.
+     *
+     * @param graph the graph to analyze
+     * @param pool the pool to run the analytics on
+     * @throws IllegalArgumentException when the graph has too many vertices
+     *                                  for its bit rows to fit in an array
+     */
+    public GraphAnalytics(DirectedGraph<V> graph, ForkJoinPool pool)
+    {
+        this.pool = pool;
+
+        //renumber the used rows of the matrix densely
+        if (graph.vertexSize() > MAX_VERTICES)
+        {
+            throw new IllegalArgumentException("Graphs with more than " + MAX_VERTICES
+                    + " vertices are too large to analyze: " + graph.vertexSize());
+        }
+
+        int capacity = graph.capacity();
+        int[] parentIndices = new int[graph.vertexSize()];
+        int[] denseOf = new int[capacity];
+        vertexTable = new Object[parentIndices.length];
+        denseIndices = new HashMap<>();
+        int next = 0;
+        for (int i = 0; i < capacity; i++)
+        {
+            V vertex = graph.vertexAt(i);
+            if (vertex != null)
+            {
+                parentIndices[next] = i;
+                denseOf[i] = next;
+                vertexTable[next] = vertex;
+                denseIndices.put(vertex, next);
+                next++;
+            }
+        }
+
+        size = next;
+        words = (size + 63) >>> 6;
+        out = new long[size * words];
+        in = new long[size * words];
+        for (int row = 0; row < size; row++)
+        {
+            int parentRow = parentIndices[row];
+            for (int parentCol = graph.nextEdgeInRow(parentRow, 0); parentCol != -1;
+                 parentCol = graph.nextEdgeInRow(parentRow, parentCol + 1))
+            {
+                int col = denseOf[parentCol];
+                if (row != col)
+                {
+                    out[row * words + (col >>> 6)] |= 1L << col;
+                    in[col * words + (row >>> 6)] |= 1L << row;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the most vertices whose size * words bit rows fit in one array.
+     */
+    private static int maxVertices()
+    {
+        long limit = Integer.MAX_VALUE - 8;
+        int vertices = (int) Math.sqrt(limit * 64);
+        while ((long) vertices * ((vertices + 63) >>> 6) > limit)
+        {
+            vertices--;
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns the number of vertices in the snapshot.
+     * @return the vertex count
+     */
+    public int vertexSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the vertex at an index of the arrays returned by this class.
+     *
+     * @param index the index of a vertex
+     * @return the vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertexAt(int index)
+    {
+        return (V) vertexTable[index];
+    }
+
+    /**
+     * Returns the index of a vertex in the arrays returned by this class.
+     *
+     * @param vertex the vertex to search for
+     * @return the index of the vertex, or -1 if it is not in the snapshot
+     */
+    public int indexOf(V vertex)
+    {
+        Integer index = denseIndices.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Counts the directed 3-cycles (a => b => c => a) in the graph. Each
+     * cycle is counted once, no matter which vertex it starts from.
+     *
+     * @return the number of cyclic triangles
+     */
+    public long cycleTriangles()
+    {
+        //for each edge (a, b), count the c with b => c and c => a
+        return sumRows(a -> {
+            long count = 0;
+            for (int b = nextBit(out, a, 0); b != -1; b = nextBit(out, a, b + 1))
+            {
+                count += intersection(out, b, in, a);
+            }
+            return count;
+        }) / 3;
+    }
+
+    /**
+     * Counts the transitive triangles (a => b, b => c and a => c) in the
+     * graph. Each triangle is counted once.
+     *
+     * @return the number of transitive triangles
+     */
+    public long transitiveTriangles()
+    {
+        //for each edge (a, b), count the c with a => c and b => c
+        return sumRows(a -> {
+            long count = 0;
+            for (int b = nextBit(out, a, 0); b != -1; b = nextBit(out, a, b + 1))
+            {
+                count += intersection(out, a, out, b);
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Computes the local clustering coefficient of each vertex: the number
+     * of directed edges between the neighbors of the vertex (in either
+     * direction), divided by the k(k - 1) edges possible between its k
+     * neighbors. Vertices with less than two neighbors have a coefficient
+     * of zero.
+     *
+     * @return the clustering coefficients, by index
+     */
+    public double[] clusteringCoefficients()
+    {
+        double[] coefficients = new double[size];
+        forEachRow(v -> {
+            long[] neighbors = new long[words];
+            int k = 0;
+            for (int w = 0; w < words; w++)
+            {
+                neighbors[w] = out[v * words + w] | in[v * words + w];
+                k += Long.bitCount(neighbors[w]);
+            }
+            if (k < 2)
+            {
+                return;
+            }
+
+            long links = 0;
+            for (int u = nextBit(neighbors, 0, 0); u != -1; u = nextBit(neighbors, 0, u + 1))
+            {
+                for (int w = 0; w < words; w++)
+                {
+                    links += Long.bitCount(out[u * words + w] & neighbors[w]);
+                }
+            }
+            coefficients[v] = (double) links / ((long) k * (k - 1));
+        });
+        return coefficients;
+    }
+
+    /**
+     * Computes the clustering coefficient of each vertex, as described by
+     * clusteringCoefficients().
+     *
+     * @return the clustering coefficients, by vertex
+     */
+    public Map<V, Double> clusteringCoefficientMap()
+    {
+        double[] coefficients = clusteringCoefficients();
+        Map<V, Double> result = new HashMap<>();
+        for (int i = 0; i < size; i++)
+        {
+            result.put(vertexAt(i), coefficients[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the vertices reachable from each vertex by a path of at most
+     * a number of edges. A vertex only counts itself when it is on a cycle
+     * of at most that length.
+     *
+     * @param hops the maximum path length
+     * @return the reach counts, by index
+     * @throws IllegalArgumentException when the path length is negative
+     */
+    public int[] reachCounts(int hops)
+    {
+        if (hops < 0)
+        {
+            throw new IllegalArgumentException("The number of hops must not be negative: " + hops);
+        }
+
+        int[] counts = new int[size];
+        forEachRow(v -> {
+            long[] reached = new long[words];
+            long[] frontier = new long[words];
+            long[] next = new long[words];
+            frontier[v >>> 6] = 1L << v;
+
+            for (int hop = 0; hop < hops; hop++)
+            {
+                Arrays.fill(next, 0);
+                for (int u = nextBit(frontier, 0, 0); u != -1; u = nextBit(frontier, 0, u + 1))
+                {
+                    for (int w = 0; w < words; w++)
+                    {
+                        next[w] |= out[u * words + w];
+                    }
+                }
+
+                boolean grew = false;
+                for (int w = 0; w < words; w++)
+                {
+                    next[w] &= ~reached[w];
+                    reached[w] |= next[w];
+                    grew |= next[w] != 0;
+                }
+                if (!grew)
+                {
+                    break;
+                }
+
+                long[] swap = frontier;
+                frontier = next;
+                next = swap;
+            }
+
+            int count = 0;
+            for (long word : reached)
+            {
+                count += Long.bitCount(word);
+            }
+            counts[v] = count;
+        });
+        return counts;
+    }
+
+    /**
+     * Counts the vertices reachable from each vertex, as described by
+     * reachCounts().
+     *
+     * @param hops the maximum path length
+     * @return the reach counts, by vertex
+     * @throws IllegalArgumentException when the path length is negative
+     */
+    public Map<V, Integer> reachCountMap(int hops)
+    {
+        int[] counts = reachCounts(hops);
+        Map<V, Integer> result = new HashMap<>();
+        for (int i = 0; i < size; i++)
+        {
+            result.put(vertexAt(i), counts[i]);
+        }
+        return result;
+    }
+
+    //bit row helpers
+
+    private int intersection(long[] left, int leftRow, long[] right, int rightRow)
+    {
+        int count = 0;
+        int leftStart = leftRow * words;
+        int rightStart = rightRow * words;
+        for (int w = 0; w < words; w++)
+        {
+            count += Long.bitCount(left[leftStart + w] & right[rightStart + w]);
+        }
+        return count;
+    }
+
+    private int nextBit(long[] bits, int row, int from)
+    {
+        if (from >= size)
+        {
+            return -1;
+        }
+
+        int start = row * words;
+        int w = from >>> 6;
+        long word = bits[start + w] & (-1L << from);
+        while (word == 0)
+        {
+            if (++w == words)
+            {
+                return -1;
+            }
+            word = bits[start + w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    //fork-join over ranges of rows
+
+    private long sumRows(IntToLongFunction perRow)
+    {
+        return pool.invoke(new RowSum(perRow, 0, size));
+    }
+
+    private void forEachRow(IntConsumer perRow)
+    {
+        pool.invoke(new RowAction(perRow, 0, size));
+    }
+
+    private static class RowSum extends RecursiveTask<Long>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final IntToLongFunction perRow;
+        private final int low;
+        private final int high;
+
+        RowSum(IntToLongFunction perRow, int low, int high)
+        {
+            this.perRow = perRow;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected Long compute()
+        {
+            if (high - low <= ROWS_PER_TASK)
+            {
+                long sum = 0;
+                for (int row = low; row < high; row++)
+                {
+                    sum += perRow.applyAsLong(row);
+                }
+                return sum;
+            }
+
+            int middle = (low + high) >>> 1;
+            RowSum left = new RowSum(perRow, low, middle);
+            left.fork();
+            long right = new RowSum(perRow, middle, high).compute();
+            return left.join() + right;
+        }
+    }
+
+    private static class RowAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer perRow;
+        private final int low;
+        private final int high;
+
+        RowAction(IntConsumer perRow, int low, int high)
+        {
+            this.perRow = perRow;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (high - low <= ROWS_PER_TASK)
+            {
+                for (int row = low; row < high; row++)
+                {
+                    perRow.accept(row);
+                }
+                return;
+            }
+
+            int middle = (low + high) >>> 1;
+            invokeAll(new RowAction(perRow, low, middle), new RowAction(perRow, middle, high));
+        }
+    }
+}
@@ -0,0 +1,581 @@
+package structures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Computes betweenness centrality and PageRank over a snapshot of a
+ * DirectedGraph. The snapshot renumbers the vertices densely and copies the
+ * rows of the weight matrix into compressed sparse row arrays, for both
+ * out-edges and in-edges.
+ *
+ * Betweenness uses Brandes' algorithm, with one search per source vertex.
+ * The sources are split over a ForkJoinPool into a few tasks per thread.
+ * Each task adds its results into its own array, and the arrays are summed
+ * as the tasks are joined, so the threads never share writes.
+ *
+ * Self-loops are ignored by every measure. Changes made to the graph after
+ * the snapshot is taken are not seen.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class GraphCentrality<V>
+{
+    private static final int SOURCES_PER_TASK = 4;
+    private static final int TASKS_PER_THREAD = 4;
+    private static final int ROWS_PER_TASK = 256;
+    private static final double DEFAULT_DAMPING = 0.85;
+    private static final double DEFAULT_TOLERANCE = 1e-9;
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private final ForkJoinPool pool;
+    private final Object[] vertexTable;
+    private final Map<V, Integer> denseIndices;
+    private final int size;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+
+    /**
+     * Takes a snapshot of a graph, using the common ForkJoinPool.
+     * @param graph the graph to analyze
+     */
+    public GraphCentrality(DirectedGraph<V> graph)
+    {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Takes a snapshot of a graph.
+     *
+     * @param graph the graph to analyze
+     * @param pool the pool to run the computations on
+     */
+    public GraphCentrality(DirectedGraph<V> graph, ForkJoinPool pool)
+    {
+        this.pool = pool;
+
+        //renumber the used rows of the matrix densely
+        int capacity = graph.capacity();
+        int[] denseIndex = new int[capacity];
+        vertexTable = new Object[graph.vertexSize()];
+        denseIndices = new HashMap<>();
+        int next = 0;
+        for (int i = 0; i < capacity; i++)
+        {
+            V vertex = graph.vertexAt(i);
+            denseIndex[i] = -1;
+            if (vertex != null)
+            {
+                denseIndex[i] = next;
+                vertexTable[next] = vertex;
+                denseIndices.put(vertex, next);
+                next++;
+            }
+        }
+        size = next;
+
+        //copy the rows of the matrix, which are visited in dense order
+        outOffsets = new int[size + 1];
+        int[] targets = new int[graph.edgeSize()];
+        int[] weights = new int[graph.edgeSize()];
+        int edges = 0;
+        for (int row = 0; row < capacity; row++)
+        {
+            int source = denseIndex[row];
+            if (source == -1)
+            {
+                continue;
+            }
+            for (int col = graph.nextEdgeInRow(row, 0); col != -1; col = graph.nextEdgeInRow(row, col + 1))
+            {
+                if (col != row)
+                {
+                    targets[edges] = denseIndex[col];
+                    weights[edges] = graph.weightAt(row, col);
+                    edges++;
+                }
+            }
+            outOffsets[source + 1] = edges;
+        }
+        outTargets = Arrays.copyOf(targets, edges);
+        outWeights = Arrays.copyOf(weights, edges);
+
+        //transpose the out-edges with a counting sort
+        inOffsets = new int[size + 1];
+        for (int target : outTargets)
+        {
+            inOffsets[target + 1]++;
+        }
+        for (int v = 0; v < size; v++)
+        {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        inSources = new int[edges];
+        int[] filled = Arrays.copyOf(inOffsets, size);
+        for (int u = 0; u < size; u++)
+        {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++)
+            {
+                inSources[filled[outTargets[e]]++] = u;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices in the snapshot.
+     * @return the vertex count
+     */
+    public int vertexSize()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the vertex at an index of the arrays returned by this class.
+     *
+     * @param index the index of a vertex
+     * @return the vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertexAt(int index)
+    {
+        return (V) vertexTable[index];
+    }
+
+    /**
+     * Returns the index of a vertex in the arrays returned by this class.
+     *
+     * @param vertex the vertex to search for
+     * @return the index of the vertex, or -1 if it is not in the snapshot
+     */
+    public int indexOf(V vertex)
+    {
+        Integer index = denseIndices.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Computes the betweenness centrality of each vertex, counting every
+     * edge as one step. The betweenness of v is the sum, over all ordered
+     * pairs (s, t) of other vertices, of the fraction of shortest paths
+     * from s to t that pass through v.
+     *
+     * @return the betweenness of each vertex, by index
+     */
+    public double[] betweenness()
+    {
+        return betweenness(false);
+    }
+
+    /**
+     * Computes the betweenness centrality of each vertex, as described by
+     * betweenness(), with path lengths measured by edge weights.
+     *
+     * @return the weighted betweenness of each vertex, by index
+     */
+    public double[] weightedBetweenness()
+    {
+        return betweenness(true);
+    }
+
+    /**
+     * Computes the betweenness centrality of each vertex, as described by
+     * betweenness().
+     *
+     * @return the betweenness of each vertex, by vertex
+     */
+    public Map<V, Double> betweennessMap()
+    {
+        return toMap(betweenness());
+    }
+
+    /**
+     * Computes the weighted betweenness centrality of each vertex, as
+     * described by weightedBetweenness().
+     *
+     * @return the weighted betweenness of each vertex, by vertex
+     */
+    public Map<V, Double> weightedBetweennessMap()
+    {
+        return toMap(weightedBetweenness());
+    }
+
+    private double[] betweenness(boolean weighted)
+    {
+        //each task allocates a workspace, so keep the tasks few but enough to balance the load
+        int grain = Math.max(SOURCES_PER_TASK, size / (TASKS_PER_THREAD * pool.getParallelism()) + 1);
+        return pool.invoke(new BetweennessTask(weighted, grain, 0, size));
+    }
+
+    /**
+     * Computes the PageRank of each vertex by power iteration, with a
+     * damping factor of 0.85, until the ranks change by less than 1e-9 (or
+     * for at most 100 iterations).
+     *
+     * @return the PageRank of each vertex, by index
+     */
+    public double[] pageRank()
+    {
+        return pageRank(DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Computes the PageRank of each vertex by power iteration. Each step
+     * follows a random out-edge with probability equal to the damping
+     * factor, and jumps to a random vertex otherwise. Vertices without
+     * out-edges jump to a random vertex. Edge weights are not used. The
+     * ranks add up to one.
+     *
+     * @param damping the probability of following an edge
+     * @param tolerance stop once the total change in rank over all vertices is below this
+     * @param maxIterations the most iterations to run
+     * @return the PageRank of each vertex, by index
+     * @throws IllegalArgumentException when the damping factor is not in [0, 1),
+     *         the tolerance is not positive or there are no iterations
+     */
+    public double[] pageRank(double damping, double tolerance, int maxIterations)
+    {
+        if (damping < 0 || damping >= 1)
+        {
+            throw new IllegalArgumentException("The damping factor must be in [0, 1): " + damping);
+        }
+        if (tolerance <= 0 || maxIterations <= 0)
+        {
+            throw new IllegalArgumentException("The tolerance and iterations must be positive: "
+                    + tolerance + ", " + maxIterations);
+        }
+
+        double[] rank = new double[size];
+        double[] next = new double[size];
+        double[] share = new double[size];
+        Arrays.fill(rank, 1.0 / size);
+
+        for (int iteration = 0; iteration < maxIterations; iteration++)
+        {
+            //each vertex splits its rank evenly over its out-edges
+            double dangling = 0;
+            for (int u = 0; u < size; u++)
+            {
+                int degree = outOffsets[u + 1] - outOffsets[u];
+                share[u] = degree == 0 ? 0 : rank[u] / degree;
+                dangling += degree == 0 ? rank[u] : 0;
+            }
+
+            double base = (1 - damping + damping * dangling) / size;
+            double[] ranked = next;
+            forEach(ROWS_PER_TASK, v ->
+            {
+                double sum = 0;
+                for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++)
+                {
+                    sum += share[inSources[e]];
+                }
+                ranked[v] = base + damping * sum;
+            });
+
+            double change = 0;
+            for (int v = 0; v < size; v++)
+            {
+                change += Math.abs(next[v] - rank[v]);
+            }
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            if (change < tolerance)
+            {
+                break;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Computes the PageRank of each vertex, as described by pageRank().
+     *
+     * @return the PageRank of each vertex, by vertex
+     */
+    public Map<V, Double> pageRankMap()
+    {
+        return toMap(pageRank());
+    }
+
+    private Map<V, Double> toMap(double[] scores)
+    {
+        Map<V, Double> result = new HashMap<>();
+        for (int i = 0; i < size; i++)
+        {
+            result.put(vertexAt(i), scores[i]);
+        }
+        return result;
+    }
+
+    /**
+     * The scratch space and betweenness totals of one task.
+     */
+    private class Workspace
+    {
+        private final double[] centrality = new double[size];
+        private final double[] paths = new double[size];
+        private final double[] dependency = new double[size];
+        private final long[] distance = new long[size];
+        private final int[] order = new int[size];
+        private long[] heapKeys = new long[16];
+        private int[] heapVertices = new int[16];
+        private int heapSize;
+
+        Workspace()
+        {
+            Arrays.fill(distance, -1);
+        }
+
+        /**
+         * Runs one Brandes search from a source and adds the dependencies
+         * of the source on every other vertex to the totals.
+         */
+        void accumulate(int source, boolean weighted)
+        {
+            distance[source] = 0;
+            paths[source] = 1;
+            int reached = weighted ? searchWeighted(source) : searchUnweighted(source);
+
+            //visit vertices from farthest to closest, so successors are done first
+            for (int i = reached - 1; i >= 0; i--)
+            {
+                int v = order[i];
+                double sum = 0;
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++)
+                {
+                    int w = outTargets[e];
+                    if (distance[w] == distance[v] + (weighted ? outWeights[e] : 1))
+                    {
+                        sum += paths[v] / paths[w] * (1 + dependency[w]);
+                    }
+                }
+                dependency[v] = sum;
+                if (v != source)
+                {
+                    centrality[v] += sum;
+                }
+            }
+
+            //reset only the vertices this search touched
+            for (int i = 0; i < reached; i++)
+            {
+                int v = order[i];
+                distance[v] = -1;
+                paths[v] = 0;
+                dependency[v] = 0;
+            }
+        }
+
+        private int searchUnweighted(int source)
+        {
+            //breadth first search, where the queue is also the visit order
+            int head = 0;
+            int tail = 0;
+            order[tail++] = source;
+            while (head < tail)
+            {
+                int v = order[head++];
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++)
+                {
+                    int w = outTargets[e];
+                    if (distance[w] == -1)
+                    {
+                        distance[w] = distance[v] + 1;
+                        order[tail++] = w;
+                    }
+                    if (distance[w] == distance[v] + 1)
+                    {
+                        paths[w] += paths[v];
+                    }
+                }
+            }
+            return tail;
+        }
+
+        private int searchWeighted(int source)
+        {
+            //Dijkstra's algorithm, where heap entries with an old distance are skipped
+            int reached = 0;
+            push(0, source);
+            while (heapSize > 0)
+            {
+                long key = heapKeys[0];
+                int v = pop();
+                if (key != distance[v])
+                {
+                    continue;
+                }
+                order[reached++] = v;
+
+                for (int e = outOffsets[v]; e < outOffsets[v + 1]; e++)
+                {
+                    int w = outTargets[e];
+                    long candidate = distance[v] + outWeights[e];
+                    if (distance[w] == -1 || candidate < distance[w])
+                    {
+                        distance[w] = candidate;
+                        paths[w] = paths[v];
+                        push(candidate, w);
+                    }
+                    else if (candidate == distance[w])
+                    {
+                        paths[w] += paths[v];
+                    }
+                }
+            }
+            return reached;
+        }
+
+        private void push(long key, int vertex)
+        {
+            if (heapSize == heapKeys.length)
+            {
+                heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+                heapVertices = Arrays.copyOf(heapVertices, heapSize * 2);
+            }
+
+            int i = heapSize++;
+            while (i > 0 && heapKeys[(i - 1) >>> 1] > key)
+            {
+                int parent = (i - 1) >>> 1;
+                heapKeys[i] = heapKeys[parent];
+                heapVertices[i] = heapVertices[parent];
+                i = parent;
+            }
+            heapKeys[i] = key;
+            heapVertices[i] = vertex;
+        }
+
+        private int pop()
+        {
+            int top = heapVertices[0];
+            long key = heapKeys[--heapSize];
+            int vertex = heapVertices[heapSize];
+
+            int i = 0;
+            while (true)
+            {
+                int child = 2 * i + 1;
+                if (child >= heapSize)
+                {
+                    break;
+                }
+                if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child])
+                {
+                    child++;
+                }
+                if (heapKeys[child] >= key)
+                {
+                    break;
+                }
+                heapKeys[i] = heapKeys[child];
+                heapVertices[i] = heapVertices[child];
+                i = child;
+            }
+            heapKeys[i] = key;
+            heapVertices[i] = vertex;
+            return top;
+        }
+    }
+
+    //fork-join over ranges of vertices
+
+    /**
+     * Runs the searches from a range of sources with one workspace, and
+     * returns the betweenness totals of the range.
+     */
+    private class BetweennessTask extends RecursiveTask<double[]>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean weighted;
+        private final int grain;
+        private final int low;
+        private final int high;
+
+        BetweennessTask(boolean weighted, int grain, int low, int high)
+        {
+            this.weighted = weighted;
+            this.grain = grain;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected double[] compute()
+        {
+            if (high - low <= grain)
+            {
+                Workspace workspace = new Workspace();
+                for (int source = low; source < high; source++)
+                {
+                    workspace.accumulate(source, weighted);
+                }
+                return workspace.centrality;
+            }
+
+            int middle = (low + high) >>> 1;
+            BetweennessTask right = new BetweennessTask(weighted, grain, middle, high);
+            right.fork();
+            double[] centrality = new BetweennessTask(weighted, grain, low, middle).compute();
+            double[] rightCentrality = right.join();
+            for (int v = 0; v < size; v++)
+            {
+                centrality[v] += rightCentrality[v];
+            }
+            return centrality;
+        }
+    }
+
+    private void forEach(int grain, IntConsumer perVertex)
+    {
+        pool.invoke(new RangeAction(perVertex, grain, 0, size));
+    }
+
+    private static class RangeAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer perVertex;
+        private final int grain;
+        private final int low;
+        private final int high;
+
+        RangeAction(IntConsumer perVertex, int grain, int low, int high)
+        {
+            this.perVertex = perVertex;
+            this.grain = grain;
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (high - low <= grain)
+            {
+                for (int v = low; v < high; v++)
+                {
+                    perVertex.accept(v);
+                }
+                return;
+            }
+
+            int middle = (low + high) >>> 1;
+            invokeAll(new RangeAction(perVertex, grain, low, middle),
+                    new RangeAction(perVertex, grain, middle, high));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package structures;
+
+/**
+ * A single change made to a graph, as reported by DirectedGraph.changesSince().
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public final class GraphChange<V>
+{
+    /**
+     * The kinds of changes that can be made to a graph.
+     */
+    public enum Type
+    {
+        VERTEX_ADDED,
+        /** the vertex and all of its edges were removed */
+        VERTEX_REMOVED,
+        EDGE_ADDED,
+        EDGE_REWEIGHTED,
+        EDGE_REMOVED,
+        /** all vertices and edges were removed */
+        CLEARED
+    }
+
+    private final long version;
+    private final Type type;
+    private final V source;
+    private final V destination;
+    private final int weight;
+
+    GraphChange(long version, Type type, V source, V destination, int weight)
+    {
+        this.version = version;
+        this.type = type;
+        this.source = source;
+        this.destination = destination;
+        this.weight = weight;
+    }
+
+    /**
+     * Getter for the version of the graph after this change.
+     * @return the graph version
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Getter for the kind of change.
+     * @return the change type
+     */
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * Getter for the vertex that was added or removed, or the source vertex
+     * of an edge change.
+     * @return the vertex, or null for CLEARED
+     */
+    public V getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Getter for the destination vertex of an edge change.
+     * @return the destination vertex, or null if this is not an edge change
+     */
+    public V getDestination()
+    {
+        return destination;
+    }
+
+    /**
+     * Getter for the new weight of an added or reweighted edge.
+     * @return the edge weight, or 0 for other changes
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(version).append(": ").append(type);
+        if (source != null)
+        {
+            builder.append(" ").append(source);
+        }
+        if (destination != null)
+        {
+            builder.append(" => ").append(destination);
+        }
+        if (weight != 0)
+        {
+            builder.append(" (").append(weight).append(")");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package structures;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of DirectedGraph.changesSince(). Either holds the changes made
+ * after the requested version, or reports that they are no longer available
+ * and the caller must copy the whole graph again.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public final class GraphChanges<V>
+{
+    private final long version;
+    private final boolean resyncRequired;
+    private final List<GraphChange<V>> changes;
+
+    private GraphChanges(long version, boolean resyncRequired, List<GraphChange<V>> changes)
+    {
+        this.version = version;
+        this.resyncRequired = resyncRequired;
+        this.changes = changes;
+    }
+
+    static <V> GraphChanges<V> upToDate(long version)
+    {
+        return new GraphChanges<>(version, false, Collections.emptyList());
+    }
+
+    static <V> GraphChanges<V> resyncRequired(long version)
+    {
+        return new GraphChanges<>(version, true, Collections.emptyList());
+    }
+
+    static <V> GraphChanges<V> of(long version, List<GraphChange<V>> changes)
+    {
+        return new GraphChanges<>(version, false, Collections.unmodifiableList(changes));
+    }
+
+    /**
+     * Getter for the version of the graph when the changes were collected.
+     * Pass this to the next call to changesSince().
+     * @return the graph version
+     */
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Reports whether the changes are no longer available, in which case
+     * the caller must copy the whole graph again.
+     * @return true if a full copy is required, otherwise false
+     */
+    public boolean isResyncRequired()
+    {
+        return resyncRequired;
+    }
+
+    /**
+     * Returns the changes in the order they were made.
+     * @return a read-only list of changes, empty when a resync is required
+     */
+    public List<GraphChange<V>> getChanges()
+    {
+        return changes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return resyncRequired ? "resync required at " + version : changes.size() + " changes up to " + version;
+    }
+}
@@ -0,0 +1,466 @@
+package structures;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies edge updates from many producer threads to a DirectedGraph
+ * through a single writer thread, so producers never contend on the graph.
+ *
+ * Producers add updates to a bounded lock-free queue, with offer() (which
+ * fails when the queue is full) or put() (which waits for room). The
+ * ingestor is also a Flow.Subscriber: it requests as many updates as the
+ * queue can hold, and requests more as the writer drains them, so a
+ * publisher such as SubmissionPublisher blocks its producers once the
+ * queue is full.
+ *
+ * The writer takes updates from the queue in batches. Within a batch, each
+ * vertex is looked up once and only the last update to each edge is
+ * applied. Updates to the same edge from one producer are applied in the
+ * order they were added. Call flush() to wait until every update added so
+ * far is in the graph.
+ *
+ * While the ingestor is open, the graph must not be changed by any other
+ * thread, and should only be read after a flush().
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class GraphIngestor<V> implements Flow.Subscriber<EdgeUpdate<V>>, Closeable
+{
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int DEFAULT_MAX_BATCH = 4096;
+    private static final long PUT_BACKOFF_NANOS = 50_000;
+
+    private final DirectedGraph<V> graph;
+    private final BoundedQueue<Pending<V>> queue;
+    private final int maxBatchSize;
+    private final Thread writer;
+    private final AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+    private final LongAdder rejected = new LongAdder();
+    private volatile boolean sleeping;
+    private volatile boolean closed;
+    private volatile boolean stopped;
+
+    //written by the writer thread while holding the lock on this ingestor
+    private long applied;
+    private long coalesced;
+    private long batches;
+    private int largestBatch;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+    private Throwable failure;
+
+    /**
+     * Starts an ingestor for a graph, with room for 65,536 queued updates
+     * and batches of up to 4,096 updates.
+     *
+     * @param graph the graph to change
+     */
+    public GraphIngestor(DirectedGraph<V> graph)
+    {
+        this(graph, DEFAULT_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Starts an ingestor for a graph.
+     *
+     * @param graph the graph to change
+     * @param capacity the least number of updates the queue can hold
+     * @param maxBatchSize the most updates to apply in one batch
+     * @throws IllegalArgumentException when the capacity or batch size is not positive
+     */
+    public GraphIngestor(DirectedGraph<V> graph, int capacity, int maxBatchSize)
+    {
+        if (maxBatchSize <= 0)
+        {
+            throw new IllegalArgumentException("The batch size must be positive: " + maxBatchSize);
+        }
+
+        this.graph = graph;
+        this.queue = new BoundedQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+
+        writer = new Thread(this::drain, "graph-ingestor");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Adds an update to the queue, if there is room.
+     *
+     * @param update the update to apply
+     * @return true if the update was queued, or false if the queue is full
+     * @throws IllegalStateException when the ingestor is closed
+     */
+    public boolean offer(EdgeUpdate<V> update)
+    {
+        if (!enqueue(update))
+        {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    //put() retries this, so only offer() counts an update as rejected
+    private boolean enqueue(EdgeUpdate<V> update)
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("The ingestor is closed");
+        }
+        if (stopped)
+        {
+            throw new IllegalStateException("The writer thread has stopped", failure());
+        }
+        if (!queue.offer(new Pending<>(update, System.nanoTime())))
+        {
+            return false;
+        }
+
+        if (sleeping)
+        {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Adds an update to the queue, waiting for room if the queue is full.
+     *
+     * @param update the update to apply
+     * @throws InterruptedException when interrupted while waiting
+     * @throws IllegalStateException when the ingestor is closed
+     */
+    public void put(EdgeUpdate<V> update) throws InterruptedException
+    {
+        while (!enqueue(update))
+        {
+            LockSupport.parkNanos(this, PUT_BACKOFF_NANOS);
+            if (Thread.interrupted())
+            {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Waits until every update queued before this call has been applied
+     * to the graph. Changes made by the writer are visible to the caller
+     * once this returns.
+     *
+     * @throws InterruptedException when interrupted while waiting
+     * @throws IllegalStateException when the writer failed to apply a batch,
+     *                               an update from a publisher was dropped,
+     *                               or the writer thread has stopped
+     */
+    public void flush() throws InterruptedException
+    {
+        long target = queue.added();
+        LockSupport.unpark(writer);
+        synchronized (this)
+        {
+            while (applied < target && !stopped)
+            {
+                wait();
+            }
+            if (failure != null)
+            {
+                Throwable cause = failure;
+                failure = null;
+                throw new IllegalStateException("Failed to apply updates", cause);
+            }
+            if (applied < target)
+            {
+                throw new IllegalStateException("The writer thread stopped before applying every update");
+            }
+        }
+    }
+
+    private synchronized Throwable failure()
+    {
+        return failure;
+    }
+
+    /**
+     * Returns the current queue, batch and latency counters.
+     * @return a snapshot of the metrics
+     */
+    public synchronized IngestMetrics metrics()
+    {
+        return new IngestMetrics(queue.added(), rejected.sum(), applied, coalesced, batches, largestBatch,
+                totalLatencyNanos, maxLatencyNanos);
+    }
+
+    /**
+     * Applies every queued update, then stops the writer thread. Producers
+     * must have stopped adding updates before the ingestor is closed.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive())
+        {
+            try
+            {
+                writer.join();
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        Flow.Subscription current = subscription.getAndSet(null);
+        if (current != null)
+        {
+            current.cancel();
+        }
+    }
+
+    //Flow.Subscriber
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription)
+    {
+        //only one publisher at a time
+        if (closed || !this.subscription.compareAndSet(null, subscription))
+        {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(queue.capacity());
+    }
+
+    @Override
+    public void onNext(EdgeUpdate<V> update)
+    {
+        //only a producer calling offer() directly can have used up the room we requested
+        try
+        {
+            put(update);
+        }
+        catch (InterruptedException e)
+        {
+            //the update is lost, so stop the stream and let flush() report it
+            Thread.currentThread().interrupt();
+            Flow.Subscription current = subscription.getAndSet(null);
+            if (current != null)
+            {
+                current.cancel();
+            }
+            synchronized (this)
+            {
+                if (failure == null)
+                {
+                    failure = new IllegalStateException("Interrupted while queueing " + update
+                            + ", the subscription was cancelled", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        subscription.set(null);
+    }
+
+    @Override
+    public void onComplete()
+    {
+        subscription.set(null);
+    }
+
+    //the writer thread
+
+    private void drain()
+    {
+        try
+        {
+            drainBatches();
+        }
+        catch (Throwable e)
+        {
+            //an Error from apply() stops the writer, so keep it for flush()
+            synchronized (this)
+            {
+                if (failure == null)
+                {
+                    failure = e;
+                }
+            }
+            throw e;
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                stopped = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void drainBatches()
+    {
+        @SuppressWarnings("unchecked")
+        Pending<V>[] batch = (Pending<V>[]) new Pending<?>[maxBatchSize];
+        while (true)
+        {
+            int count = 0;
+            Pending<V> pending;
+            while (count < maxBatchSize && (pending = queue.poll()) != null)
+            {
+                batch[count++] = pending;
+            }
+
+            if (count == 0)
+            {
+                if (closed && queue.added() == appliedCount())
+                {
+                    return;
+                }
+
+                //check the queue again after announcing the nap, so a new update can't be missed
+                sleeping = true;
+                pending = queue.poll();
+                if (pending == null)
+                {
+                    LockSupport.park(this);
+                    sleeping = false;
+                    continue;
+                }
+                sleeping = false;
+                batch[count++] = pending;
+            }
+
+            apply(batch, count);
+            for (int i = 0; i < count; i++)
+            {
+                batch[i] = null;
+            }
+
+            Flow.Subscription current = subscription.get();
+            if (current != null)
+            {
+                current.request(count);
+            }
+        }
+    }
+
+    private synchronized long appliedCount()
+    {
+        return applied;
+    }
+
+    private void apply(Pending<V>[] batch, int count)
+    {
+        //keep the last update to each edge, keyed by packed (row, col)
+        Map<V, Integer> resolved = new HashMap<>();
+        Map<Long, Integer> edges = new HashMap<>();
+        int replaced = 0;
+        RuntimeException error = null;
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                EdgeUpdate<V> update = batch[i].update;
+                int row = resolve(resolved, update.getSource(), !update.isRemoval());
+                int col = resolve(resolved, update.getDestination(), !update.isRemoval());
+                if (row == -1 || col == -1)
+                {
+                    continue;
+                }
+                if (edges.put(((long) row << 32) | col, update.getWeight()) != null)
+                {
+                    replaced++;
+                }
+            }
+
+            for (Map.Entry<Long, Integer> edge : edges.entrySet())
+            {
+                int row = (int) (edge.getKey() >>> 32);
+                int col = (int) (long) edge.getKey();
+                int weight = edge.getValue();
+                if (weight == 0)
+                {
+                    graph.removeEdgeAt(row, col);
+                }
+                else if (!graph.addEdgeAt(row, col, weight))
+                {
+                    graph.reweightEdgeAt(row, col, weight);
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            error = e;
+        }
+
+        long now = System.nanoTime();
+        synchronized (this)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                long latency = now - batch[i].acceptedNanos;
+                totalLatencyNanos += latency;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+            }
+            applied += count;
+            coalesced += replaced;
+            batches++;
+            largestBatch = Math.max(largestBatch, count);
+            if (error != null && failure == null)
+            {
+                failure = error;
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Finds the matrix index of a vertex, looking each vertex up once per
+     * batch. Vertices are added to the graph when needed.
+     */
+    private int resolve(Map<V, Integer> resolved, V vertex, boolean add)
+    {
+        Integer index = resolved.get(vertex);
+        if (index == null || (index == -1 && add))
+        {
+            if (add)
+            {
+                graph.addVertex(vertex);
+            }
+            index = graph.indexOf(vertex);
+            resolved.put(vertex, index);
+        }
+        return index;
+    }
+
+    private static final class Pending<V>
+    {
+        private final EdgeUpdate<V> update;
+        private final long acceptedNanos;
+
+        Pending(EdgeUpdate<V> update, long acceptedNanos)
+        {
+            this.update = update;
+            this.acceptedNanos = acceptedNanos;
+        }
+    }
+}
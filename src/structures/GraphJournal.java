@@ -0,0 +1,798 @@
+package structures;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal (write-ahead log) of the changes made to a
+ * DirectedGraph, so the graph can be rebuilt after a crash.
+ *
+ * Each change is appended to an in-memory batch as a small binary record.
+ * A background thread writes and forces the batch to disk once it is full,
+ * or once its oldest record has waited for the maximum latency (group
+ * commit), so changes to the graph never wait on the disk. Call sync() to
+ * wait until every change so far is durable.
+ *
+ * After a number of records the journal writes a checkpoint: a snapshot of
+ * the whole graph, including the index layout, after which a new (empty) log
+ * is started. The graph is copied in memory when the checkpoint is due, and
+ * the background thread writes the copy. Opening a journal loads the last
+ * snapshot and replays the log after it, which gives every vertex back its
+ * original index and restores the free index stack in its original order.
+ *
+ * If the journal can't be written, changes to the graph still succeed but
+ * are no longer recorded, and the error is thrown from sync(), checkpoint()
+ * and close().
+ *
+ * Directory layout:
+ * - graph.snapshot - the last checkpoint, its generation number and the
+ *   graph version it was taken at
+ * - journal-[generation].log - the batches written since that checkpoint
+ *
+ * The graph should only be changed by one thread at a time, as with any
+ * DirectedGraph.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class GraphJournal<V> implements Closeable
+{
+    public static final long DEFAULT_MAX_LATENCY_MILLIS = 10;
+    public static final int DEFAULT_MAX_BATCH_BYTES = 64 * 1024;
+    public static final int DEFAULT_CHECKPOINT_RECORDS = 1_000_000;
+
+    private static final String SNAPSHOT = "graph.snapshot";
+    private static final String SNAPSHOT_TEMP = "graph.snapshot.tmp";
+    private static final int SNAPSHOT_MAGIC = 0x47534E32;
+    private static final int FRAME_HEADER = 8;
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private static final byte ADD_VERTEX = 1;
+    private static final byte REMOVE_VERTEX = 2;
+    private static final byte ADD_EDGE = 3;
+    private static final byte REMOVE_EDGE = 4;
+    private static final byte CLEAR = 5;
+    private static final byte REWEIGHT_EDGE = 6;
+
+    private final Path directory;
+    private final VertexCodec<V> codec;
+    private final long maxLatencyNanos;
+    private final int maxBatchBytes;
+    private final int checkpointRecords;
+    private final DirectedGraph<V> graph;
+    private final Recorder recorder;
+    private final Thread flusher;
+
+    //held while writing to the log file, always taken before "this"
+    private final Object fileLock = new Object();
+    private FileChannel log;
+    private long generation;
+
+    //guarded by "this"
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+    private long pendingSince;
+    private long appended;
+    private long durable;
+    private long syncRequested;
+    private int recordsSinceCheckpoint;
+    private Snapshot checkpointDue;
+    private boolean closed;
+    private IOException failure;
+
+    private GraphJournal(Path directory, VertexCodec<V> codec, long maxLatencyMillis,
+                         int maxBatchBytes, int checkpointRecords) throws IOException
+    {
+        if (maxLatencyMillis < 0 || maxBatchBytes <= 0 || checkpointRecords < 0)
+        {
+            throw new IllegalArgumentException("Journal limits must not be negative");
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.maxLatencyNanos = maxLatencyMillis * 1_000_000;
+        this.maxBatchBytes = maxBatchBytes;
+        this.checkpointRecords = checkpointRecords;
+
+        Files.createDirectories(directory);
+        graph = new DirectedGraph<>();
+        recover();
+
+        recorder = new Recorder();
+        graph.addListener(recorder);
+
+        flusher = new Thread(this::flushLoop, "graph-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Opens (or creates) a journal in a directory, using the default limits.
+     *
+     * @param directory the directory holding the journal files
+     * @param codec writes and reads the vertices of the graph
+     * @param <V> the type of vertices in the graph
+     * @return the opened journal
+     * @throws IOException when the journal cannot be read or created
+     */
+    public static <V> GraphJournal<V> open(Path directory, VertexCodec<V> codec) throws IOException
+    {
+        return open(directory, codec, DEFAULT_MAX_LATENCY_MILLIS, DEFAULT_MAX_BATCH_BYTES,
+                DEFAULT_CHECKPOINT_RECORDS);
+    }
+
+    /**
+     * Opens (or creates) a journal in a directory. Any graph saved in the
+     * directory is recovered and can be found with graph().
+     *
+     * @param directory the directory holding the journal files
+     * @param codec writes and reads the vertices of the graph
+     * @param maxLatencyMillis the longest a change waits before it is forced to disk
+     * @param maxBatchBytes the batch size that is forced to disk without waiting
+     * @param checkpointRecords the number of records between checkpoints, or 0
+     *                          to only checkpoint when checkpoint() is called
+     * @param <V> the type of vertices in the graph
+     * @return the opened journal
+     * @throws IOException when the journal cannot be read or created
+     * @throws IllegalArgumentException when given a negative limit
+     */
+    public static <V> GraphJournal<V> open(Path directory, VertexCodec<V> codec, long maxLatencyMillis,
+                                           int maxBatchBytes, int checkpointRecords) throws IOException
+    {
+        return new GraphJournal<>(directory, codec, maxLatencyMillis, maxBatchBytes, checkpointRecords);
+    }
+
+    /**
+     * Returns the graph kept by this journal. Every change made to the graph
+     * is recorded in the journal.
+     *
+     * @return the journaled graph
+     */
+    public DirectedGraph<V> graph()
+    {
+        return graph;
+    }
+
+    //recovery
+
+    private void recover() throws IOException
+    {
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP));
+
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot))
+        {
+            readSnapshot(snapshot);
+        }
+
+        Path current = logPath(generation);
+        if (Files.exists(current))
+        {
+            replay(current);
+        }
+        deleteOldLogs();
+
+        log = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        log.position(log.size());
+        forceDirectory();
+    }
+
+    private void replay(Path path) throws IOException
+    {
+        long good = 0;
+        long size = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+        {
+            CRC32 crc = new CRC32();
+            while (true)
+            {
+                byte[] batch;
+                try
+                {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 0 || length > size - good - FRAME_HEADER)
+                    {
+                        break;
+                    }
+                    batch = new byte[length];
+                    in.readFully(batch);
+
+                    crc.reset();
+                    crc.update(batch);
+                    if ((int) crc.getValue() != checksum)
+                    {
+                        break;
+                    }
+                }
+                catch (EOFException e)
+                {
+                    break;
+                }
+
+                DataInputStream records = new DataInputStream(new ByteArrayInputStream(batch));
+                while (records.available() > 0)
+                {
+                    apply(records);
+                }
+                good += FRAME_HEADER + batch.length;
+            }
+        }
+
+        //drop a batch that was only partly written before the crash
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+        {
+            channel.truncate(good);
+        }
+    }
+
+    private void apply(DataInput in) throws IOException
+    {
+        byte type = in.readByte();
+        switch (type)
+        {
+            case ADD_VERTEX:
+                graph.addVertex(codec.read(in));
+                break;
+            case REMOVE_VERTEX:
+                graph.removeVertex(graph.vertexAt(readVarInt(in)));
+                break;
+            case ADD_EDGE:
+                graph.addEdgeAt(readVarInt(in), readVarInt(in), readVarInt(in));
+                break;
+            case REMOVE_EDGE:
+                graph.removeEdgeAt(readVarInt(in), readVarInt(in));
+                break;
+            case CLEAR:
+                graph.clear();
+                break;
+            case REWEIGHT_EDGE:
+                graph.reweightEdgeAt(readVarInt(in), readVarInt(in), readVarInt(in));
+                break;
+            default:
+                throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    private void readSnapshot(Path path) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path))))
+        {
+            if (in.readInt() != SNAPSHOT_MAGIC)
+            {
+                throw new IOException("Not a graph snapshot: " + path);
+            }
+            generation = in.readLong();
+            long version = in.readLong();
+
+            int capacity = readVarInt(in);
+            Object[] table = new Object[capacity];
+            int vertexCount = readVarInt(in);
+            for (int i = 0; i < vertexCount; i++)
+            {
+                int index = readVarInt(in);
+                table[index] = codec.read(in);
+            }
+
+            int[] free = new int[readVarInt(in)];
+            for (int i = 0; i < free.length; i++)
+            {
+                free[i] = readVarInt(in);
+            }
+            graph.restore(capacity, table, free);
+
+            int edgeCount = readVarInt(in);
+            for (int i = 0; i < edgeCount; i++)
+            {
+                graph.addEdgeAt(readVarInt(in), readVarInt(in), readVarInt(in));
+            }
+
+            //each record in the log after this adds one to the version, as it did originally
+            graph.restoreVersion(version);
+        }
+    }
+
+    private void deleteOldLogs() throws IOException
+    {
+        String current = logPath(generation).getFileName().toString();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "journal-*.log"))
+        {
+            for (Path path : logs)
+            {
+                if (!path.getFileName().toString().equals(current))
+                {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private Path logPath(long logGeneration)
+    {
+        return directory.resolve("journal-" + logGeneration + ".log");
+    }
+
+    //checkpoints
+
+    /**
+     * Writes a snapshot of the graph and starts a new, empty log. Changes
+     * recorded before the checkpoint are durable once this method returns.
+     *
+     * @throws IOException when the snapshot cannot be written, or the
+     *                     journal failed earlier
+     */
+    public void checkpoint() throws IOException
+    {
+        synchronized (fileLock)
+        {
+            Snapshot snapshot;
+            synchronized (this)
+            {
+                checkOpen();
+                if (failure != null)
+                {
+                    throw failure;
+                }
+                queueCheckpoint();
+                snapshot = checkpointDue;
+                checkpointDue = null;
+            }
+            writeCheckpoint(snapshot);
+        }
+    }
+
+    /**
+     * Copies the graph for a checkpoint. Must hold the lock on this journal,
+     * on the thread that changes the graph.
+     */
+    private void queueCheckpoint()
+    {
+        //pending records are covered by the snapshot, so they are dropped
+        checkpointDue = new Snapshot(appended);
+        pending.reset();
+        recordsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Writes a snapshot and moves on to a new log. Must hold fileLock.
+     */
+    private void writeCheckpoint(Snapshot snapshot) throws IOException
+    {
+        long next = generation + 1;
+        writeSnapshot(snapshot, next);
+
+        //the snapshot is in place, so the old log is no longer needed
+        FileChannel nextLog = FileChannel.open(logPath(next), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        log.close();
+        Files.deleteIfExists(logPath(generation));
+        forceDirectory();
+        log = nextLog;
+        generation = next;
+
+        synchronized (this)
+        {
+            durable = Math.max(durable, snapshot.covered);
+            notifyAll();
+        }
+    }
+
+    private void writeSnapshot(Snapshot snapshot, long snapshotGeneration) throws IOException
+    {
+        Path temp = directory.resolve(SNAPSHOT_TEMP);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(snapshotGeneration);
+            out.writeLong(snapshot.version);
+
+            writeVarInt(out, snapshot.table.length);
+            writeVarInt(out, snapshot.vertexCount);
+            for (int i = 0; i < snapshot.table.length; i++)
+            {
+                if (snapshot.table[i] != null)
+                {
+                    @SuppressWarnings("unchecked")
+                    V vertex = (V) snapshot.table[i];
+                    writeVarInt(out, i);
+                    codec.write(out, vertex);
+                }
+            }
+
+            writeVarInt(out, snapshot.free.length);
+            for (int index : snapshot.free)
+            {
+                writeVarInt(out, index);
+            }
+
+            writeVarInt(out, snapshot.edges.length / 3);
+            for (int value : snapshot.edges)
+            {
+                writeVarInt(out, value);
+            }
+
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+    }
+
+    /**
+     * Forces the directory itself to disk, so files created, renamed or
+     * deleted in it survive a crash. Windows can't open a directory as a
+     * channel (and doesn't need to), so errors are ignored there.
+     */
+    private void forceDirectory() throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        }
+        catch (IOException e)
+        {
+            if (!WINDOWS)
+            {
+                throw e;
+            }
+        }
+    }
+
+    //appending records
+
+    private void append(byte type, V vertex, int... values)
+    {
+        synchronized (this)
+        {
+            //the change has already been made to the graph, so a failure is
+            //kept for sync() and close() rather than thrown at the caller
+            if (failure != null)
+            {
+                return;
+            }
+
+            if (pending.size() == 0)
+            {
+                pendingSince = System.nanoTime();
+            }
+
+            try
+            {
+                pendingOut.writeByte(type);
+                if (vertex != null)
+                {
+                    codec.write(pendingOut, vertex);
+                }
+                for (int value : values)
+                {
+                    writeVarInt(pendingOut, value);
+                }
+            }
+            catch (IOException e)
+            {
+                failure = e;
+                notifyAll();
+                return;
+            }
+
+            appended++;
+            if (checkpointRecords > 0 && ++recordsSinceCheckpoint >= checkpointRecords)
+            {
+                queueCheckpoint();
+                notifyAll();
+            }
+            else if (pending.size() >= maxBatchBytes)
+            {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every change recorded so far has been forced to disk.
+     *
+     * @throws IOException when the journal could not be written
+     */
+    public void sync() throws IOException
+    {
+        synchronized (this)
+        {
+            long target = appended;
+            syncRequested = Math.max(syncRequested, target);
+            notifyAll();
+            while (durable < target && failure == null && !closed)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
+    }
+
+    private void flushLoop()
+    {
+        while (true)
+        {
+            synchronized (this)
+            {
+                try
+                {
+                    while (!readyToFlush())
+                    {
+                        if (failure != null || (closed && pending.size() == 0))
+                        {
+                            return;
+                        }
+                        if (pending.size() == 0)
+                        {
+                            wait();
+                        }
+                        else
+                        {
+                            long waitNanos = pendingSince + maxLatencyNanos - System.nanoTime();
+                            wait(Math.max(1, waitNanos / 1_000_000));
+                        }
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+            }
+
+            try
+            {
+                flush();
+            }
+            catch (IOException e)
+            {
+                synchronized (this)
+                {
+                    failure = e;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private boolean readyToFlush()
+    {
+        if (failure != null)
+        {
+            return false;
+        }
+        return checkpointDue != null || pending.size() > 0 && (closed || pending.size() >= maxBatchBytes
+                || syncRequested > durable
+                || System.nanoTime() - pendingSince >= maxLatencyNanos);
+    }
+
+    private void flush() throws IOException
+    {
+        synchronized (fileLock)
+        {
+            //take both at once, so records made after a checkpoint was
+            //copied are only written once its snapshot is in place
+            Snapshot snapshot;
+            byte[] batch;
+            long target;
+            synchronized (this)
+            {
+                snapshot = checkpointDue;
+                checkpointDue = null;
+                batch = pending.toByteArray();
+                pending.reset();
+                target = appended;
+            }
+
+            if (snapshot != null)
+            {
+                writeCheckpoint(snapshot);
+            }
+            if (batch.length == 0)
+            {
+                return;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(batch);
+            ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + batch.length);
+            frame.putInt(batch.length).putInt((int) crc.getValue()).put(batch).flip();
+            while (frame.hasRemaining())
+            {
+                log.write(frame);
+            }
+            log.force(false);
+
+            synchronized (this)
+            {
+                durable = Math.max(durable, target);
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("The journal is closed");
+        }
+    }
+
+    /**
+     * Forces every recorded change to disk and closes the journal. Changes
+     * made to the graph afterwards are no longer recorded.
+     *
+     * @throws IOException when the journal could not be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return;
+            }
+            graph.removeListener(recorder);
+            closed = true;
+            notifyAll();
+        }
+
+        try
+        {
+            flusher.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (fileLock)
+        {
+            log.close();
+        }
+        synchronized (this)
+        {
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
+    }
+
+    //variable-length ints keep small indices and weights to a byte or two
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            byte next = in.readByte();
+            value |= (next & 0x7F) << shift;
+            if (next >= 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length int");
+    }
+
+    /**
+     * A copy of the graph and its index layout, taken when a checkpoint is
+     * due, with the edges as (row, col, weight) triples.
+     */
+    private class Snapshot
+    {
+        private final long covered;
+        private final long version;
+        private final Object[] table;
+        private final int vertexCount;
+        private final int[] free;
+        private final int[] edges;
+
+        Snapshot(long covered)
+        {
+            this.covered = covered;
+            version = graph.version();
+            table = graph.vertexTable();
+            vertexCount = graph.vertexSize();
+            free = graph.availableIndices();
+
+            edges = new int[3 * graph.edgeSize()];
+            int next = 0;
+            for (int row = 0; row < table.length; row++)
+            {
+                for (int col = graph.nextEdgeInRow(row, 0); col != -1; col = graph.nextEdgeInRow(row, col + 1))
+                {
+                    edges[next++] = row;
+                    edges[next++] = col;
+                    edges[next++] = graph.weightAt(row, col);
+                }
+            }
+        }
+    }
+
+    private class Recorder implements GraphListener<V>
+    {
+        @Override
+        public void vertexAdded(V vertex, int index)
+        {
+            append(ADD_VERTEX, vertex);
+        }
+
+        @Override
+        public void vertexRemoved(V vertex, int index)
+        {
+            append(REMOVE_VERTEX, null, index);
+        }
+
+        @Override
+        public void edgeAdded(int source, int destination, int weight)
+        {
+            append(ADD_EDGE, null, source, destination, weight);
+        }
+
+        @Override
+        public void edgeReweighted(int source, int destination, int weight)
+        {
+            append(REWEIGHT_EDGE, null, source, destination, weight);
+        }
+
+        @Override
+        public void edgeRemoved(int source, int destination)
+        {
+            append(REMOVE_EDGE, null, source, destination);
+        }
+
+        @Override
+        public void cleared()
+        {
+            append(CLEAR, null);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package structures;
+
+/**
+ * Receives the changes made to a DirectedGraph, after each change has been
+ * applied. Vertices are reported with their matrix index, and edges only by
+ * index, so a listener can record changes without resolving vertices.
+ *
+ * Removing a vertex also removes its edges, this is reported as a single
+ * vertexRemoved() call.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+interface GraphListener<V>
+{
+    /**
+     * Called after a vertex is added to the graph.
+     *
+     * @param vertex the new vertex
+     * @param index the matrix index assigned to the vertex
+     */
+    void vertexAdded(V vertex, int index);
+
+    /**
+     * Called after a vertex and all of its edges are removed from the graph.
+     *
+     * @param vertex the removed vertex
+     * @param index the matrix index the vertex was stored at
+     */
+    void vertexRemoved(V vertex, int index);
+
+    /**
+     * Called after an edge is added to the graph.
+     *
+     * @param source the index of the source vertex
+     * @param destination the index of the destination vertex
+     * @param weight the edge weight
+     */
+    void edgeAdded(int source, int destination, int weight);
+
+    /**
+     * Called after the weight of an edge in the graph is changed.
+     *
+     * @param source the index of the source vertex
+     * @param destination the index of the destination vertex
+     * @param weight the new edge weight
+     */
+    void edgeReweighted(int source, int destination, int weight);
+
+    /**
+     * Called after an edge is removed from the graph.
+     *
+     * @param source the index of the source vertex
+     * @param destination the index of the destination vertex
+     */
+    void edgeRemoved(int source, int destination);
+
+    /**
+     * Called after all vertices and edges are removed from the graph.
+     */
+    void cleared();
+}
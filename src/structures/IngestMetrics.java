@@ -0,0 +1,125 @@
+package structures;
+
+/**
+ * A snapshot of the counters kept by a GraphIngestor.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public final class IngestMetrics
+{
+    private final long accepted;
+    private final long rejected;
+    private final long applied;
+    private final long coalesced;
+    private final long batches;
+    private final int largestBatch;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    IngestMetrics(long accepted, long rejected, long applied, long coalesced, long batches,
+                  int largestBatch, long totalLatencyNanos, long maxLatencyNanos)
+    {
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.applied = applied;
+        this.coalesced = coalesced;
+        this.batches = batches;
+        this.largestBatch = largestBatch;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /**
+     * Getter for the number of updates accepted into the queue.
+     * @return the accepted count
+     */
+    public long getAccepted()
+    {
+        return accepted;
+    }
+
+    /**
+     * Getter for the number of offered updates turned away because the
+     * queue was full.
+     * @return the rejected count
+     */
+    public long getRejected()
+    {
+        return rejected;
+    }
+
+    /**
+     * Getter for the number of updates taken from the queue and applied.
+     * @return the applied count
+     */
+    public long getApplied()
+    {
+        return applied;
+    }
+
+    /**
+     * Getter for the number of applied updates that were replaced by a
+     * later update to the same edge in the same batch.
+     * @return the coalesced count
+     */
+    public long getCoalesced()
+    {
+        return coalesced;
+    }
+
+    /**
+     * Getter for the number of batches applied to the graph.
+     * @return the batch count
+     */
+    public long getBatches()
+    {
+        return batches;
+    }
+
+    /**
+     * Getter for the size of the largest batch.
+     * @return the largest batch size
+     */
+    public int getLargestBatch()
+    {
+        return largestBatch;
+    }
+
+    /**
+     * Returns the average number of updates in a batch.
+     * @return the average batch size, or 0 if no batches were applied
+     */
+    public double getAverageBatchSize()
+    {
+        return batches == 0 ? 0 : (double) applied / batches;
+    }
+
+    /**
+     * Returns the average time from an update being accepted to it being
+     * applied to the graph.
+     * @return the average latency in nanoseconds, or 0 if no updates were applied
+     */
+    public double getAverageLatencyNanos()
+    {
+        return applied == 0 ? 0 : (double) totalLatencyNanos / applied;
+    }
+
+    /**
+     * Getter for the longest time from an update being accepted to it
+     * being applied to the graph.
+     * @return the maximum latency in nanoseconds
+     */
+    public long getMaxLatencyNanos()
+    {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "accepted: " + accepted + ", rejected: " + rejected + ", applied: " + applied
+                + ", coalesced: " + coalesced + ", batches: " + batches + ", largest batch: " + largestBatch
+                + ", max latency (ns): " + maxLatencyNanos;
+    }
+}
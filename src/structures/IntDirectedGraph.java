@@ -0,0 +1,605 @@
+package structures;
+
+import graphs.Edge;
+import graphs.IGraph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A directed, weighted graph with int vertices, stored in the same
+ * adjacency matrix as DirectedGraph but without boxing or a Bijection. The
+ * methods mirror IGraph with primitive parameters, and asGraph() adapts the
+ * graph to IGraph&lt;Integer&gt;.
+ *
+ * By default vertex ids are used directly as matrix indices, which suits
+ * dense ids starting near zero; the matrix grows to fit the largest id, and
+ * tiled() keeps the empty regions of a large matrix unallocated.
+ * Graphs created with withSparseIds() instead map each id to a matrix index
+ * with a primitive hash table, recycling the indices of removed vertices
+ * with a stack, so any int can be used as a vertex.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class IntDirectedGraph
+{
+    private static final int INITIAL_CAPACITY = 10;
+    private static final double GROWTH_FACTOR = 1.4;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final boolean sparseIds;
+    private WeightMatrix matrix;
+    private boolean[] present;
+    private int vertexSize;
+    private int edgeSize;
+
+    //only used with sparse ids
+    private IdTable idTable;
+    private int[] indexToId;
+    private int[] available;
+    private int availableSize;
+
+    /**
+     * Creates a new empty graph that uses vertex ids as matrix indices.
+     * Vertex ids must not be negative.
+     */
+    public IntDirectedGraph()
+    {
+        this(false, new DenseMatrix(INITIAL_CAPACITY));
+    }
+
+    private IntDirectedGraph(boolean sparseIds, WeightMatrix matrix)
+    {
+        this.sparseIds = sparseIds;
+        this.matrix = matrix;
+        reset();
+    }
+
+    /**
+     * Creates a new empty graph that uses vertex ids as matrix indices,
+     * storing the matrix in tiles that are only allocated once they hold
+     * an edge. This suits large id ranges whose edges are clustered.
+     *
+     * @return a new graph
+     */
+    public static IntDirectedGraph tiled()
+    {
+        return new IntDirectedGraph(false, new TiledMatrix(INITIAL_CAPACITY));
+    }
+
+    /**
+     * Creates a new empty graph that maps vertex ids to matrix indices,
+     * so that ids can be sparse or negative.
+     *
+     * @return a new graph
+     */
+    public static IntDirectedGraph withSparseIds()
+    {
+        return new IntDirectedGraph(true, new DenseMatrix(INITIAL_CAPACITY));
+    }
+
+    /**
+     * Finds the matrix index of a vertex.
+     *
+     * @param vertex the vertex to search for
+     * @return the index of the vertex, or -1 if it is not in the graph
+     */
+    private int indexOf(int vertex)
+    {
+        if (sparseIds)
+        {
+            return idTable.get(vertex);
+        }
+        return vertex >= 0 && vertex < present.length && present[vertex] ? vertex : -1;
+    }
+
+    private int requireIndex(int vertex)
+    {
+        int index = indexOf(vertex);
+        if (index == -1)
+        {
+            throw new IllegalArgumentException("Vertex is not in the graph: " + vertex);
+        }
+        return index;
+    }
+
+    private int vertexAt(int index)
+    {
+        return sparseIds ? indexToId[index] : index;
+    }
+
+    /**
+     * Adds a new vertex to the graph. If the vertex already
+     * exists, then no change is made to the graph.
+     *
+     * @param vertex the new vertex
+     * @return true if the vertex was added, otherwise false
+     * @throws IllegalArgumentException when given a negative vertex, or one
+     *                                  too large to be a matrix index, and
+     *                                  the graph does not use sparse ids
+     */
+    public boolean addVertex(int vertex)
+    {
+        if (indexOf(vertex) != -1)
+        {
+            return false;
+        }
+
+        int index;
+        if (sparseIds)
+        {
+            //pull the next free index, making sure another one is ready
+            index = available[--availableSize];
+            if (availableSize == 0)
+            {
+                available[availableSize++] = index + 1;
+            }
+        }
+        else if (vertex < 0)
+        {
+            throw new IllegalArgumentException("Vertices must not be negative: " + vertex);
+        }
+        else if (vertex >= MAX_CAPACITY)
+        {
+            throw new IllegalArgumentException("Vertex " + vertex + " is too large to be a matrix index,"
+                    + " use IntDirectedGraph.withSparseIds() for large ids");
+        }
+        else
+        {
+            index = vertex;
+        }
+
+        if (index >= matrix.capacity())
+        {
+            resize(index + 1);
+        }
+
+        if (sparseIds)
+        {
+            idTable.put(vertex, index);
+            indexToId[index] = vertex;
+        }
+        present[index] = true;
+        vertexSize++;
+        return true;
+    }
+
+    private void resize(int minimum)
+    {
+        long grown = (long) Math.ceil(matrix.capacity() * GROWTH_FACTOR);
+        int capacity = (int) Math.min(MAX_CAPACITY, Math.max(minimum, grown));
+        matrix.grow(capacity);
+        present = Arrays.copyOf(present, capacity);
+        if (sparseIds)
+        {
+            indexToId = Arrays.copyOf(indexToId, capacity);
+        }
+    }
+
+    /**
+     * Adds a new edge to the graph. If the edge already exists,
+     * then no change is made to the graph.
+     *
+     * @param source the source vertex of the edge
+     * @param destination the destination vertex of the edge
+     * @param weight the edge weight
+     * @return true if the edge was added, otherwise false
+     * @throws IllegalArgumentException when given a non-positive edge weight
+     * @throws IllegalArgumentException when given a source or destination vertex that does not exist
+     */
+    public boolean addEdge(int source, int destination, int weight)
+    {
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + weight);
+        }
+
+        int row = requireIndex(source);
+        int col = requireIndex(destination);
+        if (matrix.get(row, col) != 0)
+        {
+            return false;
+        }
+
+        matrix.set(row, col, weight);
+        edgeSize++;
+        return true;
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     * @return the vertex count.
+     */
+    public int vertexSize()
+    {
+        return vertexSize;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     * @return the edge count
+     */
+    public int edgeSize()
+    {
+        return edgeSize;
+    }
+
+    /**
+     * Reports whether a vertex is in the graph or not.
+     * @param vertex a vertex to search for
+     * @return true if the vertex is in the graph, or false otherwise
+     */
+    public boolean containsVertex(int vertex)
+    {
+        return indexOf(vertex) != -1;
+    }
+
+    /**
+     * Reports whether an edge is in the graph or not.
+     * @param source the source vertex of the edge
+     * @param destination the destination vertex of the edge
+     * @return true if edge is in the graph, or false otherwise
+     */
+    public boolean containsEdge(int source, int destination)
+    {
+        return edgeWeight(source, destination) != -1;
+    }
+
+    /**
+     * Returns the edge weight of an edge in the graph.
+     *
+     * @param source the source vertex of the edge
+     * @param destination the destination vertex of the edge
+     * @return the edge weight, or -1 if the edge weight is not found
+     */
+    public int edgeWeight(int source, int destination)
+    {
+        int row = indexOf(source);
+        int col = indexOf(destination);
+        if (row == -1 || col == -1 || matrix.get(row, col) == 0)
+        {
+            return -1;
+        }
+        return matrix.get(row, col);
+    }
+
+    /**
+     * Returns an array with all vertices in the graph, in increasing order.
+     * @return a vertex array
+     */
+    public int[] vertices()
+    {
+        int[] vertices = new int[vertexSize];
+        int next = 0;
+        for (int index = 0; index < present.length; index++)
+        {
+            if (present[index])
+            {
+                vertices[next++] = vertexAt(index);
+            }
+        }
+        if (sparseIds)
+        {
+            Arrays.sort(vertices);
+        }
+        return vertices;
+    }
+
+    /**
+     * Returns a set with all edges in the graph. Edge objects are only
+     * created while iterating over the set.
+     * @return an edge set
+     */
+    public Set<Edge<Integer>> edges()
+    {
+        Object[] table = new Object[matrix.capacity()];
+        for (int index = 0; index < present.length; index++)
+        {
+            if (present[index])
+            {
+                table[index] = vertexAt(index);
+            }
+        }
+
+        EdgeSet<Integer> edges = new EdgeSet<>(table,
+            vertex -> vertex instanceof Integer ? indexOf((Integer) vertex) : -1, edgeSize);
+        for (int row = 0; row < matrix.capacity(); row++)
+        {
+            for (int col = matrix.nextInRow(row, 0); col != -1; col = matrix.nextInRow(row, col + 1))
+            {
+                edges.put(row, col, matrix.get(row, col));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Removes a vertex from the graph.
+     *
+     * @param vertex the vertex to search for and remove
+     * @return true if the vertex was found and removed, otherwise false
+     */
+    public boolean removeVertex(int vertex)
+    {
+        int index = indexOf(vertex);
+        if (index == -1)
+        {
+            return false;
+        }
+
+        edgeSize -= matrix.clearIndex(index);
+
+        present[index] = false;
+        vertexSize--;
+        if (sparseIds)
+        {
+            idTable.remove(vertex);
+            if (availableSize == available.length)
+            {
+                available = Arrays.copyOf(available, available.length * 2);
+            }
+            available[availableSize++] = index;
+        }
+        return true;
+    }
+
+    /**
+     * Removes an edge from the graph.
+     *
+     * @param source the source vertex of the edge to search for and remove
+     * @param destination the destination vertex of the edge to search for and remove
+     * @return true if the edge was found and removed, otherwise false
+     */
+    public boolean removeEdge(int source, int destination)
+    {
+        int row = indexOf(source);
+        int col = indexOf(destination);
+        if (row == -1 || col == -1 || matrix.get(row, col) == 0)
+        {
+            return false;
+        }
+
+        matrix.set(row, col, 0);
+        edgeSize--;
+        return true;
+    }
+
+    /**
+     * Removes all vertices and edges from the graph.
+     */
+    public void clear()
+    {
+        matrix = matrix.empty(INITIAL_CAPACITY);
+        reset();
+    }
+
+    private void reset()
+    {
+        present = new boolean[INITIAL_CAPACITY];
+        vertexSize = 0;
+        edgeSize = 0;
+
+        if (sparseIds)
+        {
+            idTable = new IdTable();
+            indexToId = new int[INITIAL_CAPACITY];
+            available = new int[INITIAL_CAPACITY];
+            available[0] = 0;
+            availableSize = 1;
+        }
+    }
+
+    /**
+     * Returns a view of this graph as an IGraph&lt;Integer&gt;. Changes made
+     * through either one are seen by the other.
+     *
+     * @return an IGraph view of the graph
+     */
+    public IGraph<Integer> asGraph()
+    {
+        return new IntGraphAdapter();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "vertices: " + vertexSize + ", edges: " + edgeSize;
+    }
+
+    /**
+     * Adapts the graph to IGraph&lt;Integer&gt;, unboxing each argument.
+     * A null vertex is never in the graph.
+     */
+    private class IntGraphAdapter implements IGraph<Integer>
+    {
+        private int require(Integer vertex)
+        {
+            if (vertex == null)
+            {
+                throw new IllegalArgumentException("Vertex is not in the graph: null");
+            }
+            return vertex;
+        }
+
+        @Override
+        public boolean addVertex(Integer vertex)
+        {
+            return IntDirectedGraph.this.addVertex(require(vertex));
+        }
+
+        @Override
+        public boolean addEdge(Integer source, Integer destination, int weight)
+        {
+            return IntDirectedGraph.this.addEdge(require(source), require(destination), weight);
+        }
+
+        @Override
+        public int vertexSize()
+        {
+            return vertexSize;
+        }
+
+        @Override
+        public int edgeSize()
+        {
+            return edgeSize;
+        }
+
+        @Override
+        public boolean containsVertex(Integer vertex)
+        {
+            return vertex != null && IntDirectedGraph.this.containsVertex(vertex);
+        }
+
+        @Override
+        public boolean containsEdge(Integer source, Integer destination)
+        {
+            return source != null && destination != null
+                    && IntDirectedGraph.this.containsEdge(source, destination);
+        }
+
+        @Override
+        public int edgeWeight(Integer source, Integer destination)
+        {
+            if (source == null || destination == null)
+            {
+                return -1;
+            }
+            return IntDirectedGraph.this.edgeWeight(source, destination);
+        }
+
+        @Override
+        public Set<Integer> vertices()
+        {
+            Set<Integer> vertices = new HashSet<>();
+            for (int vertex : IntDirectedGraph.this.vertices())
+            {
+                vertices.add(vertex);
+            }
+            return vertices;
+        }
+
+        @Override
+        public Set<Edge<Integer>> edges()
+        {
+            return IntDirectedGraph.this.edges();
+        }
+
+        @Override
+        public boolean removeVertex(Integer vertex)
+        {
+            return vertex != null && IntDirectedGraph.this.removeVertex(vertex);
+        }
+
+        @Override
+        public boolean removeEdge(Integer source, Integer destination)
+        {
+            return source != null && destination != null
+                    && IntDirectedGraph.this.removeEdge(source, destination);
+        }
+
+        @Override
+        public void clear()
+        {
+            IntDirectedGraph.this.clear();
+        }
+
+        @Override
+        public String toString()
+        {
+            return IntDirectedGraph.this.toString();
+        }
+    }
+
+    /**
+     * An open-addressing hash table from vertex ids to matrix indices, with
+     * linear probing. Indices are stored plus one, so zero marks an empty slot.
+     */
+    private static class IdTable
+    {
+        private int[] keys = new int[16];
+        private int[] values = new int[16];
+        private int size;
+
+        private int home(int key)
+        {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & (keys.length - 1);
+        }
+
+        int get(int key)
+        {
+            int mask = keys.length - 1;
+            for (int slot = home(key); values[slot] != 0; slot = (slot + 1) & mask)
+            {
+                if (keys[slot] == key)
+                {
+                    return values[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void put(int key, int value)
+        {
+            if ((size + 1) * 2 > keys.length)
+            {
+                int[] oldKeys = keys;
+                int[] oldValues = values;
+                keys = new int[oldKeys.length * 2];
+                values = new int[oldKeys.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++)
+                {
+                    if (oldValues[i] != 0)
+                    {
+                        put(oldKeys[i], oldValues[i] - 1);
+                    }
+                }
+            }
+
+            int mask = keys.length - 1;
+            int slot = home(key);
+            while (values[slot] != 0)
+            {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value + 1;
+            size++;
+        }
+
+        void remove(int key)
+        {
+            int mask = keys.length - 1;
+            int slot = home(key);
+            while (values[slot] != 0 && keys[slot] != key)
+            {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == 0)
+            {
+                return;
+            }
+
+            //shift later entries of the cluster back, so lookups never stop early
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (values[next] != 0)
+            {
+                int nextHome = home(keys[next]);
+                if (((next - nextHome) & mask) >= ((next - hole) & mask))
+                {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            values[hole] = 0;
+            size--;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for arrays of matrix cells stored in the narrowest width that
+ * holds their weights: a byte[] (weights up to 255), a short[] (weights up
+ * to 65,535) or an int[]. Weights are positive, so the narrow arrays are
+ * read as unsigned values, and 0 still marks an empty cell.
+ *
+ * @author agent
+ * @version 1.0
+ */
+final class NarrowCells
+{
+    static final int BYTE_WIDTH = 1;
+    static final int SHORT_WIDTH = 2;
+    static final int INT_WIDTH = 4;
+
+    private static final int BYTE_MAX = 0xFF;
+    private static final int SHORT_MAX = 0xFFFF;
+
+    private NarrowCells()
+    {
+    }
+
+    /**
+     * Returns the narrowest width (in bytes) that holds a weight.
+     *
+     * @param weight the weight to store
+     * @return the width for the weight
+     */
+    static int widthFor(int weight)
+    {
+        if (weight >= 0 && weight <= BYTE_MAX)
+        {
+            return BYTE_WIDTH;
+        }
+        if (weight >= 0 && weight <= SHORT_MAX)
+        {
+            return SHORT_WIDTH;
+        }
+        return INT_WIDTH;
+    }
+
+    /**
+     * Creates an empty array of cells.
+     *
+     * @param width the width of each cell
+     * @param length the number of cells
+     * @return a byte[], short[] or int[]
+     */
+    static Object allocate(int width, int length)
+    {
+        switch (width)
+        {
+            case BYTE_WIDTH:
+                return new byte[length];
+            case SHORT_WIDTH:
+                return new short[length];
+            default:
+                return new int[length];
+        }
+    }
+
+    /**
+     * Reads a cell.
+     *
+     * @param cells the array of cells
+     * @param width the width of each cell
+     * @param index the cell to read
+     * @return the weight in the cell, or 0 if it is empty
+     */
+    static int get(Object cells, int width, int index)
+    {
+        switch (width)
+        {
+            case BYTE_WIDTH:
+                return ((byte[]) cells)[index] & BYTE_MAX;
+            case SHORT_WIDTH:
+                return ((short[]) cells)[index] & SHORT_MAX;
+            default:
+                return ((int[]) cells)[index];
+        }
+    }
+
+    /**
+     * Writes a cell. The weight must fit in the width of the array.
+     *
+     * @param cells the array of cells
+     * @param width the width of each cell
+     * @param index the cell to write
+     * @param weight the weight, or 0 to empty the cell
+     */
+    static void set(Object cells, int width, int index, int weight)
+    {
+        switch (width)
+        {
+            case BYTE_WIDTH:
+                ((byte[]) cells)[index] = (byte) weight;
+                break;
+            case SHORT_WIDTH:
+                ((short[]) cells)[index] = (short) weight;
+                break;
+            default:
+                ((int[]) cells)[index] = weight;
+        }
+    }
+
+    /**
+     * Copies an array of cells into a wider (or equal) width.
+     *
+     * @param cells the array of cells
+     * @param width the width of each cell
+     * @param newWidth the width of the copy
+     * @return the copy
+     */
+    static Object widen(Object cells, int width, int newWidth)
+    {
+        int length = length(cells, width);
+        Object wider = allocate(newWidth, length);
+        for (int i = 0; i < length; i++)
+        {
+            set(wider, newWidth, i, get(cells, width, i));
+        }
+        return wider;
+    }
+
+    /**
+     * Copies an array of cells into a new length, with empty cells added at the end.
+     *
+     * @param cells the array of cells
+     * @param width the width of each cell
+     * @param length the length of the copy
+     * @return the copy
+     */
+    static Object copyOf(Object cells, int width, int length)
+    {
+        switch (width)
+        {
+            case BYTE_WIDTH:
+                return Arrays.copyOf((byte[]) cells, length);
+            case SHORT_WIDTH:
+                return Arrays.copyOf((short[]) cells, length);
+            default:
+                return Arrays.copyOf((int[]) cells, length);
+        }
+    }
+
+    /**
+     * Returns the number of cells in an array.
+     *
+     * @param cells the array of cells
+     * @param width the width of each cell
+     * @return the length of the array
+     */
+    static int length(Object cells, int width)
+    {
+        switch (width)
+        {
+            case BYTE_WIDTH:
+                return ((byte[]) cells).length;
+            case SHORT_WIDTH:
+                return ((short[]) cells).length;
+            default:
+                return ((int[]) cells).length;
+        }
+    }
+
+    /**
+     * Finds the next non-empty cell in a range of an array.
+     *
+     * @param cells the array of cells
+     * @param width the width of each cell
+     * @param from the first cell to check
+     * @param to one past the last cell to check
+     * @return the index of the next non-empty cell, or -1 if there is none
+     */
+    static int next(Object cells, int width, int from, int to)
+    {
+        switch (width)
+        {
+            case BYTE_WIDTH:
+                byte[] bytes = (byte[]) cells;
+                for (int i = from; i < to; i++)
+                {
+                    if (bytes[i] != 0)
+                    {
+                        return i;
+                    }
+                }
+                return -1;
+            case SHORT_WIDTH:
+                short[] shorts = (short[]) cells;
+                for (int i = from; i < to; i++)
+                {
+                    if (shorts[i] != 0)
+                    {
+                        return i;
+                    }
+                }
+                return -1;
+            default:
+                int[] ints = (int[]) cells;
+                for (int i = from; i < to; i++)
+                {
+                    if (ints[i] != 0)
+                    {
+                        return i;
+                    }
+                }
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package structures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The shortest (lowest total weight) paths from one vertex of a
+ * DirectedGraph to every other vertex, found with Dijkstra's algorithm
+ * using a priority queue over the rows of the matrix.
+ *
+ * The paths are a snapshot: later changes to the graph are not seen, and
+ * the paths can be read from any thread without touching the graph.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class ShortestPaths<V>
+{
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private final V source;
+    private final Object[] vertexTable;
+    private final Map<Object, Integer> indices;
+    private final long[] distances;
+    private final int[] previous;
+
+    /**
+     * Finds the shortest paths from a vertex.
+     *
+     * @param graph the graph to search
+     * @param sourceIndex the index of the source vertex
+     */
+    ShortestPaths(DirectedGraph<V> graph, int sourceIndex)
+    {
+        this.source = graph.vertexAt(sourceIndex);
+        this.vertexTable = graph.vertexTable();
+        this.indices = new HashMap<>();
+        for (int i = 0; i < vertexTable.length; i++)
+        {
+            if (vertexTable[i] != null)
+            {
+                indices.put(vertexTable[i], i);
+            }
+        }
+
+        int capacity = vertexTable.length;
+        distances = new long[capacity];
+        previous = new int[capacity];
+        boolean[] done = new boolean[capacity];
+        Arrays.fill(distances, UNREACHED);
+        Arrays.fill(previous, -1);
+        distances[sourceIndex] = 0;
+
+        //queue entries are {distance, index}, and stale entries are skipped
+        PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong((long[] entry) -> entry[0]));
+        queue.add(new long[] {0, sourceIndex});
+        while (!queue.isEmpty())
+        {
+            int closest = (int) queue.poll()[1];
+            if (done[closest])
+            {
+                continue;
+            }
+            done[closest] = true;
+
+            for (int col = graph.nextEdgeInRow(closest, 0); col != -1; col = graph.nextEdgeInRow(closest, col + 1))
+            {
+                long distance = distances[closest] + graph.weightAt(closest, col);
+                if (!done[col] && distance < distances[col])
+                {
+                    distances[col] = distance;
+                    previous[col] = closest;
+                    queue.add(new long[] {distance, col});
+                }
+            }
+        }
+    }
+
+    private int indexOf(Object vertex)
+    {
+        Integer index = indices.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Getter for the vertex the paths start from.
+     * @return the source vertex
+     */
+    public V getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Returns the total weight of the shortest path to a vertex.
+     *
+     * @param destination the vertex at the end of the path
+     * @return the path weight, or -1 if there is no path
+     */
+    public long distanceTo(V destination)
+    {
+        int index = indexOf(destination);
+        if (index == -1 || distances[index] == UNREACHED)
+        {
+            return -1;
+        }
+        return distances[index];
+    }
+
+    /**
+     * Returns the vertices on the shortest path to a vertex, starting with
+     * the source vertex and ending with the destination.
+     *
+     * @param destination the vertex at the end of the path
+     * @return the path, or an empty list if there is no path
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> pathTo(V destination)
+    {
+        int index = indexOf(destination);
+        if (index == -1 || distances[index] == UNREACHED)
+        {
+            return Collections.emptyList();
+        }
+
+        List<V> path = new ArrayList<>();
+        for (int i = index; i != -1; i = previous[i])
+        {
+            path.add((V) vertexTable[i]);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
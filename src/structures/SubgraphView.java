@@ -0,0 +1,270 @@
+package structures;
+
+import graphs.Edge;
+import graphs.IGraph;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A view of the subgraph of a DirectedGraph induced by a set of its
+ * vertices. The view stores no edges of its own: it keeps a sorted array
+ * from its local indices to the indices of the parent graph and answers
+ * every query from the parent's matrix.
+ *
+ * Edges can be added to and removed from the view (the changes are made
+ * to the parent graph), but vertices cannot. If a vertex of the view is
+ * removed from the parent graph, the view throws a
+ * ConcurrentModificationException from then on, since the parent may reuse
+ * the index of the removed vertex. Other vertices of the parent can be
+ * added and removed freely.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class SubgraphView<V> implements IGraph<V>
+{
+    private final DirectedGraph<V> parent;
+    private final int[] localToParent;
+    private final Object[] vertices;
+    private int checkedRemovals;
+
+    /**
+     * Creates a new view over a parent graph.
+     *
+     * @param parent the graph to view
+     * @param localToParent the parent indices of the vertices in the view,
+     *                      sorted in increasing order
+     */
+    SubgraphView(DirectedGraph<V> parent, int[] localToParent)
+    {
+        this.parent = parent;
+        this.localToParent = localToParent;
+        this.vertices = new Object[localToParent.length];
+        for (int i = 0; i < vertices.length; i++)
+        {
+            vertices[i] = parent.vertexAt(localToParent[i]);
+        }
+        this.checkedRemovals = parent.vertexRemovals();
+    }
+
+    private void checkParent()
+    {
+        //only look at the vertices again after the parent has removed one
+        int removals = parent.vertexRemovals();
+        if (removals == checkedRemovals)
+        {
+            return;
+        }
+
+        for (int i = 0; i < vertices.length; i++)
+        {
+            if (!Objects.equals(parent.vertexAt(localToParent[i]), vertices[i]))
+            {
+                throw new ConcurrentModificationException(
+                        "A vertex of the subgraph was removed from the parent graph: " + vertices[i]);
+            }
+        }
+        checkedRemovals = removals;
+    }
+
+    /**
+     * Finds the parent index of a vertex, if the vertex is in the view.
+     *
+     * @param vertex the vertex to search for
+     * @return the parent index of the vertex, or -1 if it is not in the view
+     */
+    private int parentIndexOf(Object vertex)
+    {
+        checkParent();
+        int index = parent.indexOf(vertex);
+        if (index == -1 || Arrays.binarySearch(localToParent, index) < 0)
+        {
+            return -1;
+        }
+        return index;
+    }
+
+    //used by edge sets, which check the result against their own copy of the vertices
+    private int localIndexOf(Object vertex)
+    {
+        int index = parent.indexOf(vertex);
+        return index == -1 ? -1 : Math.max(-1, Arrays.binarySearch(localToParent, index));
+    }
+
+    private int requireParentIndex(V vertex)
+    {
+        int index = parentIndexOf(vertex);
+        if (index == -1)
+        {
+            throw new IllegalArgumentException("Vertex is not in the subgraph: " + vertex);
+        }
+        return index;
+    }
+
+    /**
+     * Copies the subgraph into a new, independent graph.
+     * @return a copy of the subgraph
+     */
+    public DirectedGraph<V> materialize()
+    {
+        checkParent();
+
+        //a new graph hands out indices 0, 1, 2, ... in the order vertices are added
+        DirectedGraph<V> copy = new DirectedGraph<>();
+        for (int parentIndex : localToParent)
+        {
+            copy.addVertex(parent.vertexAt(parentIndex));
+        }
+        for (int row = 0; row < localToParent.length; row++)
+        {
+            for (int col = 0; col < localToParent.length; col++)
+            {
+                int weight = parent.weightAt(localToParent[row], localToParent[col]);
+                if (weight != 0)
+                {
+                    copy.addEdgeAt(row, col, weight);
+                }
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public boolean addVertex(V vertex)
+    {
+        throw new UnsupportedOperationException("Vertices cannot be added to a subgraph view");
+    }
+
+    @Override
+    public boolean addEdge(V source, V destination, int weight)
+    {
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + weight);
+        }
+        return parent.addEdgeAt(requireParentIndex(source), requireParentIndex(destination), weight);
+    }
+
+    @Override
+    public int vertexSize()
+    {
+        checkParent();
+        return localToParent.length;
+    }
+
+    /**
+     * Returns the number of edges in the subgraph. The edges are counted on
+     * each call, which takes time proportional to the square of vertexSize().
+     *
+     * @return the edge count
+     */
+    @Override
+    public int edgeSize()
+    {
+        checkParent();
+        int count = 0;
+        for (int row : localToParent)
+        {
+            for (int col : localToParent)
+            {
+                if (parent.weightAt(row, col) != 0)
+                {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean containsVertex(V vertex)
+    {
+        return parentIndexOf(vertex) != -1;
+    }
+
+    @Override
+    public boolean containsEdge(V source, V destination)
+    {
+        return edgeWeight(source, destination) != -1;
+    }
+
+    @Override
+    public int edgeWeight(V source, V destination)
+    {
+        int row = parentIndexOf(source);
+        int col = parentIndexOf(destination);
+        if (row == -1 || col == -1 || parent.weightAt(row, col) == 0)
+        {
+            return -1;
+        }
+        return parent.weightAt(row, col);
+    }
+
+    @Override
+    public Set<V> vertices()
+    {
+        checkParent();
+        Set<V> result = new HashSet<>();
+        for (Object vertex : vertices)
+        {
+            @SuppressWarnings("unchecked")
+            V typed = (V) vertex;
+            result.add(typed);
+        }
+        return result;
+    }
+
+    @Override
+    public Set<Edge<V>> edges()
+    {
+        //the view never changes its vertex array, so the edge set can share it
+        EdgeSet<V> edges = new EdgeSet<>(vertices, this::localIndexOf, edgeSize());
+        for (int row = 0; row < localToParent.length; row++)
+        {
+            for (int col = 0; col < localToParent.length; col++)
+            {
+                int weight = parent.weightAt(localToParent[row], localToParent[col]);
+                if (weight != 0)
+                {
+                    edges.put(row, col, weight);
+                }
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public boolean removeVertex(V vertex)
+    {
+        throw new UnsupportedOperationException("Vertices cannot be removed from a subgraph view");
+    }
+
+    @Override
+    public boolean removeEdge(V source, V destination)
+    {
+        int row = parentIndexOf(source);
+        int col = parentIndexOf(destination);
+        if (row == -1 || col == -1)
+        {
+            return false;
+        }
+        return parent.removeEdgeAt(row, col);
+    }
+
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Vertices cannot be removed from a subgraph view");
+    }
+
+    @Override
+    public String toString()
+    {
+        return "vertices: " + vertexSize() + ", edges: " + edgeSize() + " (subgraph)";
+    }
+}
@@ -0,0 +1,201 @@
+package structures;
+
+import java.util.Arrays;
+
+/**
+ * A matrix split into square tiles of 256 x 256 cells, where a tile is only
+ * allocated once an edge is stored in it, and is released again when its
+ * last edge is removed. This suits large graphs whose edges are clustered
+ * in blocks, since empty regions of the matrix take no space.
+ *
+ * The tiles are found through a two-dimensional directory. Growing the
+ * matrix only grows the directory, so existing tiles are never copied.
+ * Tiles start out as byte arrays, and every tile is widened to short or
+ * int arrays the first time a weight is stored that does not fit.
+ *
+ * @author agent
+ * @version 1.0
+ */
+class TiledMatrix implements WeightMatrix
+{
+    private static final int TILE_SHIFT = 8;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private int capacity;
+    private Object[][] tiles;
+    private int[][] tileEdges;
+    private int width;
+
+    /**
+     * Creates an empty matrix.
+     * @param capacity the number of rows (and columns)
+     */
+    TiledMatrix(int capacity)
+    {
+        this.capacity = capacity;
+        int side = tilesFor(capacity);
+        tiles = new Object[side][side];
+        tileEdges = new int[side][side];
+        width = NarrowCells.BYTE_WIDTH;
+    }
+
+    private static int tilesFor(int capacity)
+    {
+        return (capacity + TILE_MASK) >>> TILE_SHIFT;
+    }
+
+    private static int cell(int row, int col)
+    {
+        return ((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK);
+    }
+
+    @Override
+    public int capacity()
+    {
+        return capacity;
+    }
+
+    @Override
+    public int get(int row, int col)
+    {
+        Object tile = tiles[row >>> TILE_SHIFT][col >>> TILE_SHIFT];
+        return tile == null ? 0 : NarrowCells.get(tile, width, cell(row, col));
+    }
+
+    @Override
+    public void set(int row, int col, int weight)
+    {
+        int needed = NarrowCells.widthFor(weight);
+        if (needed > width)
+        {
+            widen(needed);
+        }
+
+        int tileRow = row >>> TILE_SHIFT;
+        int tileCol = col >>> TILE_SHIFT;
+        Object tile = tiles[tileRow][tileCol];
+        if (tile == null)
+        {
+            if (weight == 0)
+            {
+                return;
+            }
+            tile = NarrowCells.allocate(width, TILE_SIZE * TILE_SIZE);
+            tiles[tileRow][tileCol] = tile;
+        }
+
+        int cell = cell(row, col);
+        int current = NarrowCells.get(tile, width, cell);
+        if (current == 0 && weight != 0)
+        {
+            tileEdges[tileRow][tileCol]++;
+        }
+        else if (current != 0 && weight == 0)
+        {
+            //release the tile along with its last edge
+            if (--tileEdges[tileRow][tileCol] == 0)
+            {
+                tiles[tileRow][tileCol] = null;
+                return;
+            }
+        }
+        NarrowCells.set(tile, width, cell, weight);
+    }
+
+    private void widen(int needed)
+    {
+        for (Object[] tileRow : tiles)
+        {
+            for (int tileCol = 0; tileCol < tileRow.length; tileCol++)
+            {
+                if (tileRow[tileCol] != null)
+                {
+                    tileRow[tileCol] = NarrowCells.widen(tileRow[tileCol], width, needed);
+                }
+            }
+        }
+        width = needed;
+    }
+
+    @Override
+    public void grow(int capacity)
+    {
+        int side = tilesFor(capacity);
+        if (side > tiles.length)
+        {
+            Object[][] largerTiles = new Object[side][];
+            int[][] largerEdges = new int[side][];
+            for (int tileRow = 0; tileRow < side; tileRow++)
+            {
+                if (tileRow < tiles.length)
+                {
+                    largerTiles[tileRow] = Arrays.copyOf(tiles[tileRow], side);
+                    largerEdges[tileRow] = Arrays.copyOf(tileEdges[tileRow], side);
+                }
+                else
+                {
+                    largerTiles[tileRow] = new Object[side];
+                    largerEdges[tileRow] = new int[side];
+                }
+            }
+            tiles = largerTiles;
+            tileEdges = largerEdges;
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public WeightMatrix empty(int capacity)
+    {
+        return new TiledMatrix(capacity);
+    }
+
+    @Override
+    public int nextInRow(int row, int col)
+    {
+        Object[] tileRow = tiles[row >>> TILE_SHIFT];
+        int offset = (row & TILE_MASK) << TILE_SHIFT;
+        while (col < capacity)
+        {
+            Object tile = tileRow[col >>> TILE_SHIFT];
+            int tileStart = col & ~TILE_MASK;
+            int tileEnd = tileStart + TILE_SIZE;
+            if (tile != null)
+            {
+                //a row of a tile is a contiguous run of cells
+                int cell = NarrowCells.next(tile, width, offset | (col & TILE_MASK), offset + TILE_SIZE);
+                if (cell != -1)
+                {
+                    return tileStart + (cell - offset);
+                }
+            }
+            col = tileEnd;
+        }
+        return -1;
+    }
+
+    @Override
+    public int nextInColumn(int col, int row)
+    {
+        int tileCol = col >>> TILE_SHIFT;
+        int offset = col & TILE_MASK;
+        while (row < capacity)
+        {
+            Object tile = tiles[row >>> TILE_SHIFT][tileCol];
+            int tileEnd = (row | TILE_MASK) + 1;
+            if (tile != null)
+            {
+                for (int i = row; i < tileEnd; i++)
+                {
+                    if (NarrowCells.get(tile, width, ((i & TILE_MASK) << TILE_SHIFT) | offset) != 0)
+                    {
+                        return i;
+                    }
+                }
+            }
+            row = tileEnd;
+        }
+        return -1;
+    }
+}
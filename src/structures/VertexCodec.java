@@ -0,0 +1,78 @@
+package structures;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes vertices to (and reads them from) a binary stream, so that a graph
+ * can be saved to disk.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of the vertices
+ */
+public interface VertexCodec<V>
+{
+    /**
+     * Writes a vertex to a stream.
+     *
+     * @param out the stream to write to
+     * @param vertex the vertex to write
+     * @throws IOException when the stream cannot be written
+     */
+    void write(DataOutput out, V vertex) throws IOException;
+
+    /**
+     * Reads a vertex from a stream.
+     *
+     * @param in the stream to read from
+     * @return the vertex that was read
+     * @throws IOException when the stream cannot be read
+     */
+    V read(DataInput in) throws IOException;
+
+    /**
+     * Returns a codec for string vertices.
+     * @return a string codec
+     */
+    static VertexCodec<String> strings()
+    {
+        return new VertexCodec<>()
+        {
+            @Override
+            public void write(DataOutput out, String vertex) throws IOException
+            {
+                out.writeUTF(vertex);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException
+            {
+                return in.readUTF();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for integer vertices.
+     * @return an integer codec
+     */
+    static VertexCodec<Integer> integers()
+    {
+        return new VertexCodec<>()
+        {
+            @Override
+            public void write(DataOutput out, Integer vertex) throws IOException
+            {
+                out.writeInt(vertex);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException
+            {
+                return in.readInt();
+            }
+        };
+    }
+}
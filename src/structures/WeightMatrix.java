@@ -0,0 +1,111 @@
+package structures;
+
+/**
+ * The cells of an adjacency matrix. Each cell holds the weight of the edge
+ * from its row index to its column index, or 0 if there is no such edge.
+ *
+ * @author agent
+ * @version 1.0
+ */
+interface WeightMatrix
+{
+    /**
+     * Returns the number of rows (and columns) in the matrix.
+     * @return the matrix capacity
+     */
+    int capacity();
+
+    /**
+     * Returns the weight stored in a cell.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @return the weight, or 0 if the cell is empty
+     */
+    int get(int row, int col);
+
+    /**
+     * Stores a weight in a cell.
+     *
+     * @param row the row index
+     * @param col the column index
+     * @param weight the weight, or 0 to empty the cell
+     */
+    void set(int row, int col, int weight);
+
+    /**
+     * Grows the matrix, keeping the contents of every cell.
+     *
+     * @param capacity the new number of rows (and columns)
+     */
+    void grow(int capacity);
+
+    /**
+     * Creates an empty matrix that stores its cells the same way as this one.
+     *
+     * @param capacity the number of rows (and columns)
+     * @return a new empty matrix
+     */
+    WeightMatrix empty(int capacity);
+
+    /**
+     * Empties the row and the column of an index, as when the vertex at
+     * that index is removed.
+     *
+     * @param index the row and column index
+     * @return the number of cells that were emptied
+     */
+    default int clearIndex(int index)
+    {
+        int cleared = 0;
+        for (int col = nextInRow(index, 0); col != -1; col = nextInRow(index, col + 1))
+        {
+            set(index, col, 0);
+            cleared++;
+        }
+        for (int row = nextInColumn(index, 0); row != -1; row = nextInColumn(index, row + 1))
+        {
+            set(row, index, 0);
+            cleared++;
+        }
+        return cleared;
+    }
+
+    /**
+     * Finds the next non-empty cell in a row.
+     *
+     * @param row the row index
+     * @param col the column to start searching from
+     * @return the column of the next non-empty cell, or -1 if there is none
+     */
+    default int nextInRow(int row, int col)
+    {
+        for (int i = col; i < capacity(); i++)
+        {
+            if (get(row, i) != 0)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the next non-empty cell in a column.
+     *
+     * @param col the column index
+     * @param row the row to start searching from
+     * @return the row of the next non-empty cell, or -1 if there is none
+     */
+    default int nextInColumn(int col, int row)
+    {
+        for (int i = row; i < capacity(); i++)
+        {
+            if (get(i, col) != 0)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
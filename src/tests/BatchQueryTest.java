@@ -0,0 +1,110 @@
+package tests;
+
+import generators.GraphGenerators;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that the batch lookups on DirectedGraph match single lookups.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class BatchQueryTest
+{
+    private static final int VERTEX_COUNT = 300;
+    private DirectedGraph<Integer> graph;
+
+    /**
+     * Creates a random graph with a few removed vertices for each test.
+     */
+    @BeforeEach
+    public void setup()
+    {
+        graph = GraphGenerators.erdosRenyi(new DirectedGraph<>(), VERTEX_COUNT, 0.05, new Random(34),
+                GraphGenerators.randomWeights(new Random(35), 50));
+        for (int i = 0; i < VERTEX_COUNT; i += 10)
+        {
+            graph.removeVertex(i);
+        }
+    }
+
+    private void checkBatch(int size)
+    {
+        Random random = new Random(size);
+        List<Integer> sources = new ArrayList<>();
+        List<Integer> destinations = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+        {
+            //include missing vertices, and runs of the same source
+            sources.add(i % 7 == 1 ? sources.get(i - 1) : random.nextInt(VERTEX_COUNT + 20));
+            destinations.add(random.nextInt(VERTEX_COUNT + 20));
+        }
+        if (size > 0)
+        {
+            sources.set(0, null);
+        }
+
+        int[] weights = new int[size];
+        boolean[] contains = new boolean[size];
+        graph.edgeWeights(sources, destinations, weights);
+        graph.containsEdges(sources, destinations, contains);
+
+        for (int i = 0; i < size; i++)
+        {
+            assertEquals(graph.edgeWeight(sources.get(i), destinations.get(i)), weights[i]);
+            assertEquals(graph.containsEdge(sources.get(i), destinations.get(i)), contains[i]);
+        }
+    }
+
+    /**
+     * Verifies small batches, which are looked up in order.
+     */
+    @Test
+    public void smallBatchTest()
+    {
+        checkBatch(0);
+        checkBatch(1);
+        checkBatch(100);
+    }
+
+    /**
+     * Verifies large batches, which are looked up in row order.
+     */
+    @Test
+    public void largeBatchTest()
+    {
+        checkBatch(5_000);
+    }
+
+    /**
+     * Verifies the index-level lookups, including out of range indices.
+     */
+    @Test
+    public void indexBatchTest()
+    {
+        int[] sources = graph.indicesOf(List.of(1, 2, 10, 3));
+        int[] destinations = graph.indicesOf(List.of(2, 3, 4, 1));
+        assertEquals(-1, sources[2]);
+
+        int[] weights = new int[4];
+        graph.edgeWeights(sources, destinations, weights);
+        assertEquals(graph.edgeWeight(1, 2), weights[0]);
+        assertEquals(graph.edgeWeight(2, 3), weights[1]);
+        assertEquals(-1, weights[2]);
+        assertEquals(graph.edgeWeight(3, 1), weights[3]);
+
+        graph.edgeWeights(new int[] {-1, 100_000}, new int[] {0, 0}, new int[2]);
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.edgeWeights(new int[2], new int[3], new int[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.edgeWeights(List.of(1), List.of(1, 2), new int[1]));
+    }
+}
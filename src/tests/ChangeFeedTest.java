@@ -0,0 +1,148 @@
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+import structures.GraphChange;
+import structures.GraphChanges;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that a copy of a graph can be kept up to date with
+ * DirectedGraph.changesSince().
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class ChangeFeedTest
+{
+    private static String[] testVerts = {"A", "B", "C", "D", "E", "F"};
+    private DirectedGraph<String> graph;
+
+    /**
+     * Creates a graph with a change history for each test.
+     */
+    @BeforeEach
+    public void setup()
+    {
+        graph = new DirectedGraph<>();
+        graph.trackChanges(100);
+    }
+
+    private void changeGraph()
+    {
+        for (String letter : testVerts)
+        {
+            graph.addVertex(letter);
+        }
+        for (int i = 0; i < testVerts.length - 1; i++)
+        {
+            graph.addEdge(testVerts[i], testVerts[i + 1], i + 1);
+        }
+        graph.updateEdgeWeight("A", "B", 42);
+        graph.removeEdge("C", "D");
+        graph.removeVertex("E");
+        graph.addVertex("G");
+        graph.addEdge("G", "A", 7);
+    }
+
+    private void apply(DirectedGraph<String> replica, List<GraphChange<String>> changes)
+    {
+        for (GraphChange<String> change : changes)
+        {
+            switch (change.getType())
+            {
+                case VERTEX_ADDED -> replica.addVertex(change.getSource());
+                case VERTEX_REMOVED -> replica.removeVertex(change.getSource());
+                case EDGE_ADDED -> replica.addEdge(change.getSource(), change.getDestination(), change.getWeight());
+                case EDGE_REWEIGHTED -> replica.updateEdgeWeight(change.getSource(), change.getDestination(),
+                        change.getWeight());
+                case EDGE_REMOVED -> replica.removeEdge(change.getSource(), change.getDestination());
+                case CLEARED -> replica.clear();
+            }
+        }
+    }
+
+    /**
+     * Verifies that replaying the changes produces the same graph.
+     */
+    @Test
+    public void replicaTest()
+    {
+        DirectedGraph<String> replica = new DirectedGraph<>();
+        long seen = graph.version();
+
+        changeGraph();
+        GraphChanges<String> changes = graph.changesSince(seen);
+        assertFalse(changes.isResyncRequired());
+        assertEquals(graph.version(), changes.getVersion());
+        apply(replica, changes.getChanges());
+        seen = changes.getVersion();
+
+        assertEquals(graph.vertices(), replica.vertices());
+        assertEquals(graph.edges(), replica.edges());
+        assertEquals(42, replica.edgeWeight("A", "B"));
+
+        //catch up a second time, after a clear
+        graph.clear();
+        graph.addVertex("Z");
+        changes = graph.changesSince(seen);
+        assertEquals(2, changes.getChanges().size());
+        apply(replica, changes.getChanges());
+
+        assertEquals(graph.vertices(), replica.vertices());
+        assertEquals(0, replica.edgeSize());
+    }
+
+    /**
+     * Verifies that versions only go up when the graph changes.
+     */
+    @Test
+    public void versionTest()
+    {
+        changeGraph();
+        long version = graph.version();
+
+        //none of these change the graph
+        assertFalse(graph.addVertex("A"));
+        assertFalse(graph.addEdge("A", "B", 1));
+        assertFalse(graph.updateEdgeWeight("A", "B", 42));
+        assertFalse(graph.removeEdge("C", "D"));
+        assertFalse(graph.removeVertex("E"));
+
+        assertEquals(version, graph.version());
+        assertTrue(graph.changesSince(version).getChanges().isEmpty());
+        assertTrue(graph.changesSince(version + 1).isResyncRequired());
+        assertThrows(IllegalArgumentException.class, () -> graph.changesSince(-1));
+
+        graph.addVertex("H");
+        assertEquals(version + 1, graph.version());
+    }
+
+    /**
+     * Verifies that a resync is requested once changes are dropped.
+     */
+    @Test
+    public void resyncTest()
+    {
+        graph.trackChanges(5);
+        long start = graph.version();
+        changeGraph();
+
+        assertTrue(graph.changesSince(start).isResyncRequired());
+
+        //the last few changes are still available
+        GraphChanges<String> recent = graph.changesSince(graph.version() - 5);
+        assertFalse(recent.isResyncRequired());
+        assertEquals(5, recent.getChanges().size());
+        assertEquals(GraphChange.Type.EDGE_ADDED, recent.getChanges().get(4).getType());
+
+        //untracked graphs can only ask for a resync
+        DirectedGraph<String> untracked = new DirectedGraph<>();
+        untracked.addVertex("A");
+        assertTrue(untracked.changesSince(0).isResyncRequired());
+    }
+}
@@ -0,0 +1,373 @@
+package tests;
+
+import generators.GraphGenerators;
+import graphs.Edge;
+import graphs.IGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import structures.DirectedGraph;
+import structures.IntDirectedGraph;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays long random sequences of changes against DirectedGraph and a
+ * simple ReferenceGraph, checking that both give the same answers. Also
+ * verifies the graph generators at larger sizes.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class DifferentialGraphTest
+{
+    private static final int OPERATIONS = 20_000;
+    private static final int VERTEX_RANGE = 400;
+    private static final int CHECK_EVERY = 1_000;
+
+    /**
+     * Runs an operation on both graphs and checks that both return the
+     * same result, or throw the same kind of exception.
+     */
+    private void sameResult(String operation, Supplier<Object> expected, Supplier<Object> actual)
+    {
+        Object expectedResult;
+        try
+        {
+            expectedResult = expected.get();
+        }
+        catch (RuntimeException e)
+        {
+            assertThrows(e.getClass(), actual::get, operation);
+            return;
+        }
+        assertEquals(expectedResult, actual.get(), operation);
+    }
+
+    /**
+     * Checks that two graphs hold the same vertices, edges and weights.
+     */
+    static <V> void assertSameGraph(IGraph<V> expected, IGraph<V> actual)
+    {
+        assertEquals(expected.vertexSize(), actual.vertexSize());
+        assertEquals(expected.edgeSize(), actual.edgeSize());
+        assertEquals(expected.vertices(), actual.vertices());
+        assertEquals(expected.edges(), actual.edges());
+
+        //Edge.equals() ignores weights, so compare them separately
+        for (Edge<V> edge : actual.edges())
+        {
+            assertEquals(expected.edgeWeight(edge.getSource(), edge.getDestination()), edge.getWeight());
+            assertEquals(edge.getWeight(), actual.edgeWeight(edge.getSource(), edge.getDestination()));
+        }
+    }
+
+    private void replay(long seed, IGraph<Integer> expected, IGraph<Integer> actual)
+    {
+        Random random = new Random(seed);
+        for (int i = 1; i <= OPERATIONS; i++)
+        {
+            int first = random.nextInt(VERTEX_RANGE);
+            int second = random.nextInt(VERTEX_RANGE);
+            int weight = random.nextInt(20) - 2;
+            int choice = random.nextInt(100);
+            String operation = "operation " + i + " (seed " + seed + ")";
+
+            //grow and shrink in waves, so indices are reused and the matrix is resized
+            boolean growing = (i / 4_000) % 2 == 0;
+            if (choice < (growing ? 25 : 8))
+            {
+                sameResult(operation, () -> expected.addVertex(first), () -> actual.addVertex(first));
+            }
+            else if (choice < (growing ? 30 : 25))
+            {
+                sameResult(operation, () -> expected.removeVertex(first), () -> actual.removeVertex(first));
+            }
+            else if (choice < 65)
+            {
+                sameResult(operation, () -> expected.addEdge(first, second, weight),
+                        () -> actual.addEdge(first, second, weight));
+            }
+            else if (choice < 80)
+            {
+                sameResult(operation, () -> expected.removeEdge(first, second),
+                        () -> actual.removeEdge(first, second));
+            }
+            else if (choice < 90)
+            {
+                sameResult(operation, () -> expected.edgeWeight(first, second),
+                        () -> actual.edgeWeight(first, second));
+            }
+            else if (choice < 99)
+            {
+                sameResult(operation, () -> expected.containsEdge(first, second),
+                        () -> actual.containsEdge(first, second));
+                sameResult(operation, () -> expected.containsVertex(first), () -> actual.containsVertex(first));
+            }
+            else if (random.nextInt(50) == 0)
+            {
+                expected.clear();
+                actual.clear();
+            }
+
+            if (i % CHECK_EVERY == 0)
+            {
+                assertSameGraph(expected, actual);
+            }
+        }
+        assertSameGraph(expected, actual);
+    }
+
+    /**
+     * Replays random changes against DirectedGraph.
+     * @param seed the random seed for the sequence
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    public void directedGraphTest(long seed)
+    {
+        replay(seed, new ReferenceGraph<>(), new DirectedGraph<>());
+    }
+
+    /**
+     * Replays random changes against DirectedGraph with a tiled matrix.
+     * @param seed the random seed for the sequence
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {11, 12, 13})
+    public void tiledGraphTest(long seed)
+    {
+        replay(seed, new ReferenceGraph<>(), DirectedGraph.tiled());
+    }
+
+    /**
+     * Verifies a tiled graph with more vertices than a full matrix could
+     * hold in memory, whose edges lie close to the diagonal.
+     */
+    @Test
+    public void largeTiledGraphTest()
+    {
+        int vertices = 30_000;
+        DirectedGraph<Integer> graph = GraphGenerators.chain(DirectedGraph.tiled(), vertices,
+                GraphGenerators.unitWeights());
+        graph.addEdge(vertices - 1, 0, 5);
+        assertEquals(vertices, graph.edgeSize());
+        assertEquals(vertices + 3, graph.shortestPaths(1).distanceTo(0));
+        assertEquals(vertices, graph.edges().size());
+
+        graph.removeVertex(0);
+        assertEquals(vertices - 2, graph.edgeSize());
+        assertEquals(vertices / 2 - 1, graph.shortestPaths(1).distanceTo(vertices / 2));
+        for (int i = 1; i + 1 < vertices; i++)
+        {
+            assertTrue(graph.removeEdge(i, i + 1));
+        }
+        assertEquals(0, graph.edgeSize());
+        assertTrue(graph.edges().isEmpty());
+
+        graph.addVertex(0);
+        graph.addEdge(0, vertices - 1, 3);
+        assertEquals(3, graph.edgeWeight(0, vertices - 1));
+    }
+
+    /**
+     * Verifies that weights are kept exactly as the matrix is widened from
+     * bytes to shorts to ints, for both the full and tiled matrix.
+     */
+    @Test
+    public void weightWidthTest()
+    {
+        int[] weights = {1, 127, 128, 255, 256, 32_767, 32_768, 65_535, 65_536, Integer.MAX_VALUE};
+        for (DirectedGraph<Integer> actual : List.of(new DirectedGraph<Integer>(), DirectedGraph.<Integer>tiled()))
+        {
+            IGraph<Integer> expected = new ReferenceGraph<>();
+            for (int vertex = 0; vertex < 300; vertex++)
+            {
+                expected.addVertex(vertex);
+                actual.addVertex(vertex);
+            }
+
+            for (int i = 0; i < weights.length; i++)
+            {
+                int source = i * 29;
+                expected.addEdge(source, 299 - i, weights[i]);
+                actual.addEdge(source, 299 - i, weights[i]);
+                assertEquals(weights[i], actual.edgeWeight(source, 299 - i));
+                assertEquals(-1, actual.edgeWeight(299 - i, source));
+                assertSameGraph(expected, actual);
+            }
+
+            expected.removeEdge(0, 299);
+            actual.removeEdge(0, 299);
+            expected.removeVertex(29 * 9);
+            actual.removeVertex(29 * 9);
+            assertSameGraph(expected, actual);
+            assertEquals(-1, actual.edgeWeight(0, 299));
+        }
+    }
+
+    /**
+     * Changes the edge set returned by a graph, including edges between
+     * vertices that are not in the graph, and checks that it behaves like
+     * a HashSet of the same edges.
+     */
+    @Test
+    public void edgeSetTest()
+    {
+        DirectedGraph<Integer> graph = GraphGenerators.erdosRenyi(new DirectedGraph<>(), 100, 0.05,
+                new Random(4), GraphGenerators.unitWeights());
+        graph.removeVertex(50);
+        graph.removeEdge(1, 2);
+        Set<Edge<Integer>> actual = graph.edges();
+        Set<Edge<Integer>> expected = new HashSet<>(actual);
+
+        //edges may have a weight of 0, which must not read as removed
+        Edge<Integer> unweighted = new Edge<>(1, 2, 0);
+        assertTrue(actual.add(unweighted));
+        assertTrue(expected.add(unweighted));
+        assertTrue(actual.contains(unweighted));
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), new HashSet<>(actual).size());
+
+        Random random = new Random(5);
+        for (int i = 0; i < 5_000; i++)
+        {
+            Edge<Integer> edge = new Edge<>(random.nextInt(110), random.nextInt(110), random.nextInt(10));
+            if (random.nextBoolean())
+            {
+                assertEquals(expected.add(edge), actual.add(edge), "add " + edge);
+            }
+            else
+            {
+                assertEquals(expected.remove(edge), actual.remove(edge), "remove " + edge);
+            }
+            assertEquals(expected.contains(edge), actual.contains(edge), "contains " + edge);
+            assertEquals(expected.size(), actual.size());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected, new HashSet<>(actual));
+
+        Iterator<Edge<Integer>> iterator = actual.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().getSource() % 2 == 0)
+            {
+                iterator.remove();
+            }
+        }
+        expected.removeIf(edge -> edge.getSource() % 2 == 0);
+        assertEquals(expected, actual);
+
+        actual.clear();
+        assertTrue(actual.isEmpty());
+        assertTrue(actual.add(new Edge<>(0, 200, 1)));
+        assertTrue(actual.contains(new Edge<>(0, 200, 1)));
+    }
+
+    /**
+     * Replays random changes against IntDirectedGraph, with ids used
+     * directly as indices and with ids mapped to indices.
+     * @param seed the random seed for the sequence
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {6, 7, 8})
+    public void intDirectedGraphTest(long seed)
+    {
+        replay(seed, new ReferenceGraph<>(), new IntDirectedGraph().asGraph());
+        replay(seed, new ReferenceGraph<>(), IntDirectedGraph.withSparseIds().asGraph());
+        replay(seed, new ReferenceGraph<>(), IntDirectedGraph.tiled().asGraph());
+    }
+
+    /**
+     * Verifies that ids too large to be matrix indices are rejected unless
+     * the graph maps ids to indices, and that wide weights are kept.
+     */
+    @Test
+    public void intDirectedGraphLimitsTest()
+    {
+        IntDirectedGraph dense = new IntDirectedGraph();
+        assertThrows(IllegalArgumentException.class, () -> dense.addVertex(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> dense.addVertex(-1));
+        assertEquals(0, dense.vertexSize());
+
+        IntDirectedGraph sparse = IntDirectedGraph.withSparseIds();
+        assertTrue(sparse.addVertex(Integer.MAX_VALUE));
+        assertTrue(sparse.addVertex(Integer.MIN_VALUE));
+        assertTrue(sparse.addEdge(Integer.MAX_VALUE, Integer.MIN_VALUE, 70_000));
+        assertTrue(sparse.addEdge(Integer.MIN_VALUE, Integer.MAX_VALUE, 200));
+        assertEquals(70_000, sparse.edgeWeight(Integer.MAX_VALUE, Integer.MIN_VALUE));
+        assertEquals(200, sparse.edgeWeight(Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        IntDirectedGraph tiled = IntDirectedGraph.tiled();
+        assertTrue(tiled.addVertex(100_000));
+        assertTrue(tiled.addVertex(100_001));
+        assertTrue(tiled.addEdge(100_000, 100_001, Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, tiled.edgeWeight(100_000, 100_001));
+        assertTrue(tiled.removeVertex(100_001));
+        assertEquals(0, tiled.edgeSize());
+    }
+
+    /**
+     * Verifies that each generator builds the same graph in both structures,
+     * with the expected number of edges.
+     */
+    @Test
+    public void generatorsTest()
+    {
+        IGraph<Integer> expected = GraphGenerators.complete(new ReferenceGraph<>(), 60,
+                GraphGenerators.randomWeights(new Random(1), 100));
+        IGraph<Integer> actual = GraphGenerators.complete(new DirectedGraph<>(), 60,
+                GraphGenerators.randomWeights(new Random(1), 100));
+        assertEquals(60 * 59, actual.edgeSize());
+        assertSameGraph(expected, actual);
+
+        expected = GraphGenerators.grid(new ReferenceGraph<>(), 20, 30, GraphGenerators.unitWeights());
+        actual = GraphGenerators.grid(new DirectedGraph<>(), 20, 30, GraphGenerators.unitWeights());
+        assertEquals(2 * (20 * 29 + 19 * 30), actual.edgeSize());
+        assertSameGraph(expected, actual);
+
+        expected = GraphGenerators.chain(new ReferenceGraph<>(), 500, GraphGenerators.unitWeights());
+        actual = GraphGenerators.chain(new DirectedGraph<>(), 500, GraphGenerators.unitWeights());
+        assertEquals(499, actual.edgeSize());
+        assertSameGraph(expected, actual);
+
+        expected = GraphGenerators.erdosRenyi(new ReferenceGraph<>(), 800, 0.01, new Random(2),
+                GraphGenerators.unitWeights());
+        actual = GraphGenerators.erdosRenyi(new DirectedGraph<>(), 800, 0.01, new Random(2),
+                GraphGenerators.unitWeights());
+        assertEquals(800 * 799 * 0.01, actual.edgeSize(), 800 * 799 * 0.001);
+        assertSameGraph(expected, actual);
+
+        expected = GraphGenerators.preferentialAttachment(new ReferenceGraph<>(), 800, 3, new Random(3),
+                GraphGenerators.unitWeights());
+        actual = GraphGenerators.preferentialAttachment(new DirectedGraph<>(), 800, 3, new Random(3),
+                GraphGenerators.unitWeights());
+        assertEquals(3 * 800 - 6, actual.edgeSize());
+        assertSameGraph(expected, actual);
+    }
+
+    /**
+     * Verifies that the sparse generators handle 100,000 vertices.
+     */
+    @Test
+    public void largeGeneratorsTest()
+    {
+        int vertices = 100_000;
+
+        IGraph<Integer> graph = GraphGenerators.erdosRenyi(new ReferenceGraph<>(), vertices, 2e-5,
+                new Random(4), GraphGenerators.unitWeights());
+        assertEquals(vertices, graph.vertexSize());
+        assertEquals(vertices * (vertices - 1.0) * 2e-5, graph.edgeSize(), 2_000);
+
+        graph = GraphGenerators.preferentialAttachment(new ReferenceGraph<>(), vertices, 2, new Random(5),
+                GraphGenerators.unitWeights());
+        assertEquals(2 * vertices - 3, graph.edgeSize());
+    }
+}
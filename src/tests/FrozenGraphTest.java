@@ -0,0 +1,128 @@
+package tests;
+
+import graphs.Edge;
+import graphs.IGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+import structures.FrozenGraph;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that a frozen graph answers queries like the graph
+ * it was compiled from, and rejects changes.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class FrozenGraphTest
+{
+    private static String[] testVerts = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private DirectedGraph<String> graph;
+
+    /**
+     * Creates a graph with a hole in its indices for each test.
+     */
+    @BeforeEach
+    public void setup()
+    {
+        graph = new DirectedGraph<>();
+        for (String letter : testVerts)
+        {
+            graph.addVertex(letter);
+        }
+
+        for (int i = 0; i < testVerts.length; i++)
+        {
+            graph.addEdge(testVerts[i], testVerts[(i + 1) % testVerts.length], i + 1);
+            graph.addEdge(testVerts[i], testVerts[(i + 3) % testVerts.length], 10 * (i + 1));
+        }
+
+        //leave an unused row in the matrix
+        graph.removeVertex("C");
+    }
+
+    /**
+     * Verifies that the frozen graph has the same vertices, edges and weights.
+     */
+    @Test
+    public void matchesSourceGraphTest()
+    {
+        IGraph<String> frozen = graph.freeze();
+
+        assertEquals(graph.vertexSize(), frozen.vertexSize());
+        assertEquals(graph.edgeSize(), frozen.edgeSize());
+        assertEquals(graph.vertices(), frozen.vertices());
+        assertEquals(graph.edges(), frozen.edges());
+
+        for (String source : testVerts)
+        {
+            for (String destination : testVerts)
+            {
+                assertEquals(graph.containsEdge(source, destination),
+                        frozen.containsEdge(source, destination));
+                assertEquals(graph.edgeWeight(source, destination),
+                        frozen.edgeWeight(source, destination));
+            }
+        }
+
+        //weights are carried over with each edge
+        for (Edge<String> edge : frozen.edges())
+        {
+            assertEquals(graph.edgeWeight(edge.getSource(), edge.getDestination()), edge.getWeight());
+        }
+    }
+
+    /**
+     * Verifies that later changes to the graph are not seen by the frozen copy.
+     */
+    @Test
+    public void independentOfSourceGraphTest()
+    {
+        FrozenGraph<String> frozen = graph.freeze();
+        Set<Edge<String>> edges = frozen.edges();
+
+        graph.addVertex("M");
+        graph.addEdge("A", "M", 1);
+        graph.removeVertex("B");
+
+        assertFalse(frozen.containsVertex("M"));
+        assertTrue(frozen.containsVertex("B"));
+        assertTrue(frozen.containsEdge("A", "B"));
+        assertEquals(edges, frozen.edges());
+        assertNotSame(frozen.edges(), frozen.edges());
+    }
+
+    /**
+     * Verifies that a frozen graph cannot be changed.
+     */
+    @Test
+    public void readOnlyTest()
+    {
+        FrozenGraph<String> frozen = graph.freeze();
+
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addVertex("M"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.addEdge("A", "B", 1));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.removeVertex("A"));
+        assertThrows(UnsupportedOperationException.class, () -> frozen.removeEdge("A", "B"));
+        assertThrows(UnsupportedOperationException.class, frozen::clear);
+    }
+
+    /**
+     * Verifies that an empty graph can be frozen.
+     */
+    @Test
+    public void emptyGraphTest()
+    {
+        graph.clear();
+        FrozenGraph<String> frozen = graph.freeze();
+
+        assertEquals(0, frozen.vertexSize());
+        assertEquals(0, frozen.edges().size());
+        assertFalse(frozen.containsEdge("A", "B"));
+        assertEquals(-1, frozen.indexOf("A"));
+    }
+}
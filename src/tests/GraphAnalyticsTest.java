@@ -0,0 +1,164 @@
+package tests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+import structures.GraphAnalytics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the bit row analytics with simple loops over IGraph.containsEdge().
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class GraphAnalyticsTest
+{
+    private static final int VERTEX_COUNT = 150;
+    private DirectedGraph<String> graph;
+    private List<String> vertices;
+
+    /**
+     * Creates a random graph (with holes in its indices and a few self-loops)
+     * for each test.
+     */
+    @BeforeEach
+    public void setup()
+    {
+        Random random = new Random(26);
+        graph = new DirectedGraph<>();
+        for (int i = 0; i < VERTEX_COUNT; i++)
+        {
+            graph.addVertex("v" + i);
+        }
+        for (int i = 0; i < VERTEX_COUNT * 8; i++)
+        {
+            graph.addEdge("v" + random.nextInt(VERTEX_COUNT), "v" + random.nextInt(VERTEX_COUNT), 1);
+        }
+        for (int i = 0; i < VERTEX_COUNT; i += 7)
+        {
+            graph.removeVertex("v" + i);
+        }
+        vertices = new ArrayList<>(graph.vertices());
+    }
+
+    /**
+     * Verifies both kinds of triangle counts.
+     */
+    @Test
+    public void triangleTest()
+    {
+        long cycles = 0;
+        long transitive = 0;
+        for (String a : vertices)
+        {
+            for (String b : vertices)
+            {
+                for (String c : vertices)
+                {
+                    if (a.equals(b) || b.equals(c) || a.equals(c))
+                    {
+                        continue;
+                    }
+                    if (graph.containsEdge(a, b) && graph.containsEdge(b, c))
+                    {
+                        if (graph.containsEdge(c, a))
+                        {
+                            cycles++;
+                        }
+                        if (graph.containsEdge(a, c))
+                        {
+                            transitive++;
+                        }
+                    }
+                }
+            }
+        }
+
+        GraphAnalytics<String> analytics = new GraphAnalytics<>(graph);
+        assertEquals(cycles / 3, analytics.cycleTriangles());
+        assertEquals(transitive, analytics.transitiveTriangles());
+    }
+
+    /**
+     * Verifies the clustering coefficient of each vertex.
+     */
+    @Test
+    public void clusteringTest()
+    {
+        Map<String, Double> coefficients = new GraphAnalytics<>(graph).clusteringCoefficientMap();
+        assertEquals(vertices.size(), coefficients.size());
+
+        for (String vertex : vertices)
+        {
+            Set<String> neighbors = new HashSet<>();
+            for (String other : vertices)
+            {
+                if (!other.equals(vertex) && (graph.containsEdge(vertex, other) || graph.containsEdge(other, vertex)))
+                {
+                    neighbors.add(other);
+                }
+            }
+
+            int links = 0;
+            for (String u : neighbors)
+            {
+                for (String w : neighbors)
+                {
+                    if (!u.equals(w) && graph.containsEdge(u, w))
+                    {
+                        links++;
+                    }
+                }
+            }
+
+            int k = neighbors.size();
+            double expected = k < 2 ? 0 : (double) links / (k * (k - 1));
+            assertEquals(expected, coefficients.get(vertex), 1e-12);
+        }
+    }
+
+    /**
+     * Verifies the k-hop reach counts against a breadth-first search.
+     */
+    @Test
+    public void reachTest()
+    {
+        GraphAnalytics<String> analytics = new GraphAnalytics<>(graph);
+        for (int hops = 0; hops <= 3; hops++)
+        {
+            Map<String, Integer> counts = analytics.reachCountMap(hops);
+            for (String vertex : vertices)
+            {
+                Set<String> reached = new HashSet<>();
+                Set<String> frontier = Set.of(vertex);
+                for (int hop = 0; hop < hops; hop++)
+                {
+                    Set<String> next = new HashSet<>();
+                    for (String u : frontier)
+                    {
+                        for (String w : vertices)
+                        {
+                            if (!u.equals(w) && graph.containsEdge(u, w) && reached.add(w))
+                            {
+                                next.add(w);
+                            }
+                        }
+                    }
+                    frontier = next;
+                }
+                assertEquals(reached.size(), counts.get(vertex));
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> analytics.reachCounts(-1));
+    }
+}
@@ -0,0 +1,189 @@
+package tests;
+
+import generators.GraphGenerators;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+import structures.GraphCentrality;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies betweenness and PageRank on small graphs with known answers,
+ * and betweenness against a brute force count on random graphs.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class GraphCentralityTest
+{
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Verifies betweenness on a chain, and on a diamond with two shortest paths.
+     */
+    @Test
+    public void smallBetweennessTest()
+    {
+        DirectedGraph<Integer> chain = GraphGenerators.chain(new DirectedGraph<>(), 4, GraphGenerators.unitWeights());
+        Map<Integer, Double> scores = new GraphCentrality<>(chain).betweennessMap();
+        assertEquals(Map.of(0, 0.0, 1, 2.0, 2, 2.0, 3, 0.0), scores);
+
+        DirectedGraph<String> diamond = new DirectedGraph<>();
+        for (String vertex : new String[] {"s", "a", "b", "t"})
+        {
+            diamond.addVertex(vertex);
+        }
+        diamond.addEdge("s", "a", 1);
+        diamond.addEdge("s", "b", 1);
+        diamond.addEdge("a", "t", 1);
+        diamond.addEdge("b", "t", 2);
+        diamond.addEdge("s", "s", 1);
+
+        GraphCentrality<String> centrality = new GraphCentrality<>(diamond);
+        assertEquals(0.5, centrality.betweennessMap().get("a"), DELTA);
+        assertEquals(0.5, centrality.betweennessMap().get("b"), DELTA);
+
+        //by weight, the path through b is longer
+        assertEquals(1.0, centrality.weightedBetweennessMap().get("a"), DELTA);
+        assertEquals(0.0, centrality.weightedBetweennessMap().get("b"), DELTA);
+    }
+
+    /**
+     * Verifies betweenness against counting shortest paths through each
+     * vertex from all-pairs distances.
+     */
+    @Test
+    public void randomBetweennessTest()
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            for (int seed = 0; seed < 4; seed++)
+            {
+                DirectedGraph<Integer> graph = GraphGenerators.erdosRenyi(new DirectedGraph<>(), 60, 0.06,
+                        new Random(seed), GraphGenerators.randomWeights(new Random(seed), 3));
+                graph.removeVertex(7);
+
+                GraphCentrality<Integer> centrality = new GraphCentrality<>(graph, pool);
+                assertArrayEquals(bruteForce(centrality, graph, false), centrality.betweenness(), 1e-6);
+                assertArrayEquals(bruteForce(centrality, graph, true), centrality.weightedBetweenness(), 1e-6);
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    private double[] bruteForce(GraphCentrality<Integer> centrality, DirectedGraph<Integer> graph, boolean weighted)
+    {
+        int n = centrality.vertexSize();
+        long unreached = Long.MAX_VALUE / 4;
+        long[][] distance = new long[n][n];
+        double[][] paths = new double[n][n];
+        for (int s = 0; s < n; s++)
+        {
+            for (int t = 0; t < n; t++)
+            {
+                int weight = graph.edgeWeight(centrality.vertexAt(s), centrality.vertexAt(t));
+                distance[s][t] = s == t ? 0 : weight == -1 ? unreached : weighted ? weight : 1;
+            }
+        }
+        for (int k = 0; k < n; k++)
+        {
+            for (int s = 0; s < n; s++)
+            {
+                for (int t = 0; t < n; t++)
+                {
+                    distance[s][t] = Math.min(distance[s][t], distance[s][k] + distance[k][t]);
+                }
+            }
+        }
+
+        //count shortest paths by increasing distance from each source
+        for (int s = 0; s < n; s++)
+        {
+            Integer[] byDistance = new Integer[n];
+            for (int t = 0; t < n; t++)
+            {
+                byDistance[t] = t;
+            }
+            final int source = s;
+            Arrays.sort(byDistance, (a, b) -> Long.compare(distance[source][a], distance[source][b]));
+            paths[s][s] = 1;
+            for (int t : byDistance)
+            {
+                for (int u = 0; u < n; u++)
+                {
+                    int weight = graph.edgeWeight(centrality.vertexAt(u), centrality.vertexAt(t));
+                    long step = weighted ? weight : 1;
+                    if (u != t && weight != -1 && distance[s][u] + step == distance[s][t])
+                    {
+                        paths[s][t] += paths[s][u];
+                    }
+                }
+            }
+        }
+
+        double[] expected = new double[n];
+        for (int s = 0; s < n; s++)
+        {
+            for (int t = 0; t < n; t++)
+            {
+                for (int v = 0; v < n; v++)
+                {
+                    if (s != t && s != v && v != t && distance[s][t] < unreached
+                            && distance[s][v] + distance[v][t] == distance[s][t])
+                    {
+                        expected[v] += paths[s][v] * paths[v][t] / paths[s][t];
+                    }
+                }
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Verifies PageRank on a cycle, a star and a graph with dangling vertices.
+     */
+    @Test
+    public void pageRankTest()
+    {
+        DirectedGraph<Integer> cycle = GraphGenerators.chain(new DirectedGraph<>(), 5, GraphGenerators.unitWeights());
+        cycle.addEdge(4, 0, 1);
+        for (double rank : new GraphCentrality<>(cycle).pageRank())
+        {
+            assertEquals(0.2, rank, 1e-6);
+        }
+
+        DirectedGraph<Integer> star = new DirectedGraph<>();
+        star.addVertex(0);
+        for (int i = 1; i <= 10; i++)
+        {
+            star.addVertex(i);
+            star.addEdge(i, 0, 1);
+        }
+        Map<Integer, Double> ranks = new GraphCentrality<>(star).pageRankMap();
+        double total = 0;
+        for (int i = 1; i <= 10; i++)
+        {
+            assertTrue(ranks.get(0) > ranks.get(i));
+            assertEquals(ranks.get(1), ranks.get(i), 1e-9);
+            total += ranks.get(i);
+        }
+        assertEquals(1.0, total + ranks.get(0), 1e-6);
+
+        //with no damping every vertex is reached by jumps alone
+        double[] uniform = new GraphCentrality<>(star).pageRank(0, 1e-12, 10);
+        assertEquals(1.0 / 11, uniform[0], DELTA);
+
+        assertThrows(IllegalArgumentException.class, () -> new GraphCentrality<>(star).pageRank(1, 1e-6, 10));
+        assertThrows(IllegalArgumentException.class, () -> new GraphCentrality<>(star).pageRank(0.85, 0, 10));
+        assertEquals(0, new GraphCentrality<>(new DirectedGraph<String>()).pageRank().length);
+    }
+}
@@ -0,0 +1,233 @@
+package tests;
+
+import graphs.IGraph;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+import structures.EdgeUpdate;
+import structures.GraphIngestor;
+import structures.IngestMetrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.SubmissionPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that updates sent to a GraphIngestor from many threads end up
+ * in the graph, compared with applying the same updates one at a time.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class GraphIngestorTest
+{
+    private static final int PRODUCERS = 8;
+    private static final int UPDATES_PER_PRODUCER = 20_000;
+    private static final int VERTEX_RANGE = 200;
+
+    /**
+     * Creates the updates of one producer. Each producer only changes edges
+     * leaving its own source vertices, so the final graph doesn't depend on
+     * how the producers interleave.
+     */
+    private List<EdgeUpdate<Integer>> updates(int producer)
+    {
+        Random random = new Random(producer);
+        List<EdgeUpdate<Integer>> updates = new ArrayList<>();
+        for (int i = 0; i < UPDATES_PER_PRODUCER; i++)
+        {
+            int source = producer + PRODUCERS * random.nextInt(VERTEX_RANGE / PRODUCERS);
+            int destination = random.nextInt(VERTEX_RANGE);
+            updates.add(random.nextInt(4) == 0
+                    ? EdgeUpdate.remove(source, destination)
+                    : EdgeUpdate.upsert(source, destination, 1 + random.nextInt(300)));
+        }
+        return updates;
+    }
+
+    private IGraph<Integer> expected()
+    {
+        IGraph<Integer> expected = new ReferenceGraph<>();
+        for (int producer = 0; producer < PRODUCERS; producer++)
+        {
+            for (EdgeUpdate<Integer> update : updates(producer))
+            {
+                if (update.isRemoval())
+                {
+                    expected.removeEdge(update.getSource(), update.getDestination());
+                    continue;
+                }
+                expected.addVertex(update.getSource());
+                expected.addVertex(update.getDestination());
+                if (!expected.addEdge(update.getSource(), update.getDestination(), update.getWeight()))
+                {
+                    expected.removeEdge(update.getSource(), update.getDestination());
+                    expected.addEdge(update.getSource(), update.getDestination(), update.getWeight());
+                }
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * Sends updates from several threads at once, with a small queue so
+     * producers have to wait for the writer.
+     * @throws Exception when a producer fails
+     */
+    @Test
+    public void concurrentProducersTest() throws Exception
+    {
+        DirectedGraph<Integer> graph = new DirectedGraph<>();
+        try (GraphIngestor<Integer> ingestor = new GraphIngestor<>(graph, 1024, 256))
+        {
+            List<Thread> producers = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int producer = 0; producer < PRODUCERS; producer++)
+            {
+                List<EdgeUpdate<Integer>> updates = updates(producer);
+                Thread thread = new Thread(() ->
+                {
+                    try
+                    {
+                        for (EdgeUpdate<Integer> update : updates)
+                        {
+                            ingestor.put(update);
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        synchronized (failures)
+                        {
+                            failures.add(e);
+                        }
+                    }
+                });
+                producers.add(thread);
+                thread.start();
+            }
+            for (Thread thread : producers)
+            {
+                thread.join();
+            }
+            assertEquals(List.of(), failures);
+
+            ingestor.flush();
+            DifferentialGraphTest.assertSameGraph(expected(), graph);
+
+            IngestMetrics metrics = ingestor.metrics();
+            assertEquals(PRODUCERS * UPDATES_PER_PRODUCER, metrics.getAccepted());
+            assertEquals(metrics.getAccepted(), metrics.getApplied());
+            assertEquals(0, metrics.getRejected());
+            assertTrue(metrics.getBatches() > 0);
+            assertTrue(metrics.getLargestBatch() <= 256);
+            assertTrue(metrics.getMaxLatencyNanos() >= metrics.getAverageLatencyNanos());
+        }
+    }
+
+    /**
+     * Sends updates through a Flow publisher, and checks that duplicate
+     * updates within a batch are coalesced.
+     * @throws Exception when publishing fails
+     */
+    @Test
+    public void publisherTest() throws Exception
+    {
+        DirectedGraph<Integer> graph = new DirectedGraph<>();
+        try (GraphIngestor<Integer> ingestor = new GraphIngestor<>(graph, 64, 1024))
+        {
+            try (SubmissionPublisher<EdgeUpdate<Integer>> publisher = new SubmissionPublisher<>())
+            {
+                publisher.subscribe(ingestor);
+                for (int producer = 0; producer < PRODUCERS; producer++)
+                {
+                    for (EdgeUpdate<Integer> update : updates(producer))
+                    {
+                        publisher.submit(update);
+                    }
+                }
+            }
+            while (ingestor.metrics().getAccepted() < PRODUCERS * UPDATES_PER_PRODUCER)
+            {
+                Thread.sleep(1);
+            }
+
+            ingestor.flush();
+            DifferentialGraphTest.assertSameGraph(expected(), graph);
+        }
+
+        //repeated updates to one edge are coalesced, and the last one wins
+        DirectedGraph<String> small = new DirectedGraph<>();
+        try (GraphIngestor<String> ingestor = new GraphIngestor<>(small))
+        {
+            for (int i = 1; i <= 100; i++)
+            {
+                ingestor.offer(EdgeUpdate.upsert("a", "b", i));
+            }
+            ingestor.offer(EdgeUpdate.remove("a", "missing"));
+            ingestor.flush();
+            assertEquals(100, small.edgeWeight("a", "b"));
+            assertFalse(small.containsVertex("missing"));
+            IngestMetrics metrics = ingestor.metrics();
+            assertEquals(101, metrics.getApplied());
+            assertTrue(metrics.getCoalesced() + metrics.getBatches() >= 100);
+        }
+    }
+
+    /**
+     * Verifies argument checks, rejection counts, and that a closed
+     * ingestor refuses updates.
+     * @throws Exception when closing fails
+     */
+    @Test
+    public void closedTest() throws Exception
+    {
+        assertThrows(IllegalArgumentException.class, () -> EdgeUpdate.upsert("a", "b", 0));
+        assertThrows(IllegalArgumentException.class, () -> new GraphIngestor<>(new DirectedGraph<>(), 0, 10));
+
+        DirectedGraph<String> graph = new DirectedGraph<>();
+        GraphIngestor<String> ingestor = new GraphIngestor<>(graph, 2, 2);
+        for (int i = 1; i <= 2_000; i++)
+        {
+            ingestor.put(EdgeUpdate.upsert("a", "c", i));
+        }
+        ingestor.put(EdgeUpdate.upsert("a", "b", 3));
+        ingestor.close();
+
+        //waiting in put() is not a rejection
+        assertEquals(2_001, ingestor.metrics().getApplied());
+        assertEquals(0, ingestor.metrics().getRejected());
+        assertEquals(2_000, graph.edgeWeight("a", "c"));
+        assertEquals(3, graph.edgeWeight("a", "b"));
+        assertThrows(IllegalStateException.class, () -> ingestor.offer(EdgeUpdate.remove("a", "b")));
+    }
+
+    /**
+     * Verifies that flush() reports an Error that stops the writer thread,
+     * instead of waiting for it forever.
+     */
+    @Test
+    public void writerErrorTest()
+    {
+        Object broken = new Object()
+        {
+            @Override
+            public int hashCode()
+            {
+                throw new AssertionError("Broken vertex");
+            }
+        };
+
+        GraphIngestor<Object> ingestor = new GraphIngestor<>(new DirectedGraph<>(), 4, 2);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+        {
+            ingestor.put(EdgeUpdate.upsert(broken, "a", 1));
+            IllegalStateException error = assertThrows(IllegalStateException.class, ingestor::flush);
+            assertInstanceOf(AssertionError.class, error.getCause());
+            assertThrows(IllegalStateException.class, () -> ingestor.put(EdgeUpdate.upsert("a", "b", 1)));
+        });
+        ingestor.close();
+    }
+}
@@ -0,0 +1,208 @@
+package tests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import structures.DirectedGraph;
+import structures.FrozenGraph;
+import structures.GraphJournal;
+import structures.VertexCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that a graph can be rebuilt from its journal.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class GraphJournalTest
+{
+    private static String[] testVerts = {"A", "B", "C", "D", "E", "F", "G", "H",
+                                  "I", "J", "K", "L"};
+
+    @TempDir
+    Path directory;
+
+    private void buildGraph(DirectedGraph<String> graph)
+    {
+        for (String letter : testVerts)
+        {
+            graph.addVertex(letter);
+        }
+        for (int i = 0; i < testVerts.length - 1; i++)
+        {
+            graph.addEdge(testVerts[i], testVerts[i + 1], i + 1);
+        }
+
+        //leave holes in the indices, then fill one of them
+        graph.removeVertex("C");
+        graph.removeVertex("F");
+        graph.removeEdge("H", "I");
+        graph.updateEdgeWeight("A", "B", 99);
+        graph.addVertex("M");
+        graph.addEdge("M", "A", 200);
+    }
+
+    private void assertSameGraph(DirectedGraph<String> expected, DirectedGraph<String> actual)
+    {
+        assertEquals(expected.vertices(), actual.vertices());
+        assertEquals(expected.edges(), actual.edges());
+        assertEquals(expected.edgeSize(), actual.edgeSize());
+        for (String source : expected.vertices())
+        {
+            for (String destination : expected.vertices())
+            {
+                assertEquals(expected.edgeWeight(source, destination),
+                        actual.edgeWeight(source, destination));
+            }
+        }
+
+        //both graphs should hand out the same indices from here on
+        expected.addVertex("X");
+        actual.addVertex("X");
+        expected.addVertex("Y");
+        actual.addVertex("Y");
+        expected.addEdge("X", "Y", 1);
+        actual.addEdge("X", "Y", 1);
+        FrozenGraph<String> expectedFrozen = expected.freeze();
+        FrozenGraph<String> actualFrozen = actual.freeze();
+        assertEquals(expectedFrozen.edges(), actualFrozen.edges());
+
+        //frozen graphs list their vertices in matrix index order
+        for (int i = 0; i < expectedFrozen.vertexSize(); i++)
+        {
+            assertEquals(expectedFrozen.vertexAt(i), actualFrozen.vertexAt(i));
+        }
+    }
+
+    /**
+     * Verifies that changes are replayed from the log.
+     * @throws IOException when the journal cannot be used
+     */
+    @Test
+    public void replayTest() throws IOException
+    {
+        DirectedGraph<String> expected = new DirectedGraph<>();
+        buildGraph(expected);
+
+        try (GraphJournal<String> journal = GraphJournal.open(directory, VertexCodec.strings()))
+        {
+            buildGraph(journal.graph());
+            journal.sync();
+        }
+
+        try (GraphJournal<String> journal = GraphJournal.open(directory, VertexCodec.strings()))
+        {
+            assertEquals(expected.version(), journal.graph().version());
+            assertSameGraph(expected, journal.graph());
+        }
+    }
+
+    /**
+     * Verifies that changes before and after a checkpoint are recovered.
+     * @throws IOException when the journal cannot be used
+     */
+    @Test
+    public void checkpointTest() throws IOException
+    {
+        DirectedGraph<String> expected = new DirectedGraph<>();
+        buildGraph(expected);
+        expected.removeVertex("A");
+
+        //checkpoint every few records as well
+        try (GraphJournal<String> journal = GraphJournal.open(directory, VertexCodec.strings(),
+                1, 128, 7))
+        {
+            buildGraph(journal.graph());
+            journal.checkpoint();
+            journal.graph().removeVertex("A");
+        }
+
+        //the version carries on across snapshots, so replicas can keep asking for changes
+        try (GraphJournal<String> journal = GraphJournal.open(directory, VertexCodec.strings()))
+        {
+            assertEquals(expected.version(), journal.graph().version());
+            assertTrue(journal.graph().changesSince(expected.version()).getChanges().isEmpty());
+            assertSameGraph(expected, journal.graph());
+        }
+    }
+
+    /**
+     * Verifies that a change the journal can't record is still made to the
+     * graph, and the error is reported by sync() and close().
+     * @throws IOException when the journal cannot be opened
+     */
+    @Test
+    public void failureTest() throws IOException
+    {
+        VertexCodec<String> codec = new VertexCodec<>()
+        {
+            @Override
+            public void write(DataOutput out, String vertex) throws IOException
+            {
+                if (vertex.equals("bad"))
+                {
+                    throw new IOException("Can't write " + vertex);
+                }
+                out.writeUTF(vertex);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException
+            {
+                return in.readUTF();
+            }
+        };
+
+        GraphJournal<String> journal = GraphJournal.open(directory, codec);
+        DirectedGraph<String> graph = journal.graph();
+        assertTrue(graph.addVertex("A"));
+        assertTrue(graph.addVertex("bad"));
+        assertTrue(graph.addEdge("A", "bad", 3));
+        assertEquals(3, graph.edgeWeight("A", "bad"));
+
+        assertThrows(IOException.class, journal::sync);
+        assertThrows(IOException.class, journal::checkpoint);
+        assertThrows(IOException.class, journal::close);
+    }
+
+    /**
+     * Verifies that a batch that was only partly written is ignored.
+     * @throws IOException when the journal cannot be used
+     */
+    @Test
+    public void tornWriteTest() throws IOException
+    {
+        DirectedGraph<String> expected = new DirectedGraph<>();
+        buildGraph(expected);
+
+        try (GraphJournal<String> journal = GraphJournal.open(directory, VertexCodec.strings()))
+        {
+            buildGraph(journal.graph());
+            journal.sync();
+            journal.graph().addVertex("Z");
+        }
+
+        //cut the last batch in half
+        Path log = directory.resolve("journal-0.log");
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE))
+        {
+            channel.truncate(channel.size() - 2);
+        }
+
+        try (GraphJournal<String> journal = GraphJournal.open(directory, VertexCodec.strings()))
+        {
+            assertFalse(journal.graph().containsVertex("Z"));
+            assertSameGraph(expected, journal.graph());
+        }
+        assertTrue(Files.exists(log));
+    }
+}
@@ -0,0 +1,169 @@
+package tests;
+
+import generators.GraphGenerators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.GraphServer;
+import server.LoadTestClient;
+import structures.DirectedGraph;
+import structures.ShortestPaths;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies shortest paths on DirectedGraph and the queries answered by
+ * GraphServer.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class GraphServerTest
+{
+    private DirectedGraph<String> graph;
+    private GraphServer<String> server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    /**
+     * Starts a server over a small graph for each test.
+     * @throws Exception when the server cannot start
+     */
+    @BeforeEach
+    public void setup() throws Exception
+    {
+        graph = new DirectedGraph<>();
+        for (String vertex : List.of("a", "b", "c", "d", "e x"))
+        {
+            graph.addVertex(vertex);
+        }
+        graph.addEdge("a", "b", 1);
+        graph.addEdge("b", "c", 2);
+        graph.addEdge("a", "c", 5);
+        graph.addEdge("c", "d", 1);
+        graph.addEdge("a", "e x", 9);
+
+        GraphServer.enableNoDelay();
+        server = new GraphServer<>(graph, vertex -> vertex, 0);
+    }
+
+    /**
+     * Stops the server after each test.
+     */
+    @AfterEach
+    public void teardown()
+    {
+        server.close();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception
+    {
+        URI uri = URI.create("http://localhost:" + server.getPort() + path);
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Verifies shortest path distances and routes, including unreachable vertices.
+     */
+    @Test
+    public void shortestPathsTest()
+    {
+        ShortestPaths<String> paths = graph.shortestPaths("a");
+        assertEquals("a", paths.getSource());
+        assertEquals(0, paths.distanceTo("a"));
+        assertEquals(3, paths.distanceTo("c"));
+        assertEquals(4, paths.distanceTo("d"));
+        assertEquals(List.of("a", "b", "c", "d"), paths.pathTo("d"));
+
+        assertEquals(-1, graph.shortestPaths("d").distanceTo("a"));
+        assertEquals(List.of(), graph.shortestPaths("d").pathTo("a"));
+        assertEquals(-1, paths.distanceTo("missing"));
+        assertThrows(IllegalArgumentException.class, () -> graph.shortestPaths("missing"));
+
+        assertEquals(Map.of("b", 1, "c", 5, "e x", 9), graph.neighbors("a"));
+        assertEquals(Map.of(), graph.neighbors("d"));
+    }
+
+    /**
+     * Verifies that paths found before the graph changes still answer from
+     * their snapshot, including for vertices added afterwards.
+     */
+    @Test
+    public void shortestPathsSnapshotTest()
+    {
+        ShortestPaths<String> paths = graph.shortestPaths("a");
+        graph.removeVertex("b");
+        graph.addVertex("f");
+        graph.addVertex("g");
+        graph.addEdge("a", "g", 1);
+
+        assertEquals(-1, paths.distanceTo("f"));
+        assertEquals(-1, paths.distanceTo("g"));
+        assertEquals(List.of(), paths.pathTo("g"));
+        assertEquals(4, paths.distanceTo("d"));
+        assertEquals(List.of("a", "b", "c", "d"), paths.pathTo("d"));
+        assertEquals(1, graph.shortestPaths("a").distanceTo("g"));
+    }
+
+    /**
+     * Verifies the JSON answers to each kind of query.
+     * @throws Exception when a request fails
+     */
+    @Test
+    public void queryTest() throws Exception
+    {
+        HttpResponse<String> response = get("/edge?source=a&destination=c");
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"source\":\"a\",\"destination\":\"c\",\"exists\":true,\"weight\":5}", response.body());
+        assertEquals("{\"source\":\"c\",\"destination\":\"a\",\"exists\":false,\"weight\":-1}",
+                get("/edge?source=c&destination=a").body());
+
+        assertEquals("{\"vertex\":\"a\",\"neighbors\":[{\"vertex\":\"b\",\"weight\":1},"
+                + "{\"vertex\":\"c\",\"weight\":5},{\"vertex\":\"e x\",\"weight\":9}]}",
+                get("/neighbors?vertex=a").body());
+
+        assertEquals("{\"source\":\"a\",\"destination\":\"d\",\"distance\":4,\"path\":[\"a\",\"b\",\"c\",\"d\"]}",
+                get("/path?source=a&destination=d").body());
+        assertEquals("{\"source\":\"a\",\"destination\":\"e x\",\"distance\":9,\"path\":[\"a\",\"e x\"]}",
+                get("/path?source=a&destination=e%20x").body());
+    }
+
+    /**
+     * Verifies that bad requests are rejected, and that changes made
+     * through the server are seen by later queries.
+     * @throws Exception when a request fails
+     */
+    @Test
+    public void errorAndWriteTest() throws Exception
+    {
+        assertEquals(400, get("/neighbors?vertex=missing").statusCode());
+        assertEquals(400, get("/path?source=missing&destination=a").statusCode());
+        assertEquals(400, get("/edge?source=a").statusCode());
+
+        server.write(g -> g.addEdge("d", "a", 2));
+        assertEquals("{\"source\":\"d\",\"destination\":\"a\",\"exists\":true,\"weight\":2}",
+                get("/edge?source=d&destination=a").body());
+    }
+
+    /**
+     * Runs a short load test with many concurrent clients.
+     * @throws Exception when a request fails
+     */
+    @Test
+    public void loadTest() throws Exception
+    {
+        try (GraphServer<Integer> numbers = new GraphServer<>(
+                GraphGenerators.complete(new DirectedGraph<>(), 50,
+                        GraphGenerators.unitWeights()), Integer::valueOf, 0))
+        {
+            long[] latencies = new LoadTestClient(numbers.getPort(), 50).run(8, 400);
+            assertEquals(400, latencies.length);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package tests;
+
+import graphs.Edge;
+import graphs.IGraph;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A simple graph built from nested maps, used as the expected behavior
+ * when testing faster graph structures. It follows the IGraph Javadoc as
+ * literally as possible and makes no attempt to be efficient.
+ *
+ * @author agent
+ * @version 1.0
+ * @param <V> the type of vertices in the graph
+ */
+public class ReferenceGraph<V> implements IGraph<V>
+{
+    private Map<V, Map<V, Integer>> adjacency = new HashMap<>();
+
+    @Override
+    public boolean addVertex(V vertex)
+    {
+        if (adjacency.containsKey(vertex))
+        {
+            return false;
+        }
+        adjacency.put(vertex, new HashMap<>());
+        return true;
+    }
+
+    @Override
+    public boolean addEdge(V source, V destination, int weight)
+    {
+        if (weight <= 0)
+        {
+            throw new IllegalArgumentException("Edge weights must be positive: " + weight);
+        }
+        if (!adjacency.containsKey(source) || !adjacency.containsKey(destination))
+        {
+            throw new IllegalArgumentException("Vertex is not in the graph");
+        }
+        return adjacency.get(source).putIfAbsent(destination, weight) == null;
+    }
+
+    @Override
+    public int vertexSize()
+    {
+        return adjacency.size();
+    }
+
+    @Override
+    public int edgeSize()
+    {
+        int count = 0;
+        for (Map<V, Integer> edges : adjacency.values())
+        {
+            count += edges.size();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean containsVertex(V vertex)
+    {
+        return adjacency.containsKey(vertex);
+    }
+
+    @Override
+    public boolean containsEdge(V source, V destination)
+    {
+        return edgeWeight(source, destination) != -1;
+    }
+
+    @Override
+    public int edgeWeight(V source, V destination)
+    {
+        Map<V, Integer> edges = adjacency.get(source);
+        if (edges == null || !edges.containsKey(destination))
+        {
+            return -1;
+        }
+        return edges.get(destination);
+    }
+
+    @Override
+    public Set<V> vertices()
+    {
+        return new HashSet<>(adjacency.keySet());
+    }
+
+    @Override
+    public Set<Edge<V>> edges()
+    {
+        Set<Edge<V>> result = new HashSet<>();
+        for (Map.Entry<V, Map<V, Integer>> row : adjacency.entrySet())
+        {
+            for (Map.Entry<V, Integer> edge : row.getValue().entrySet())
+            {
+                result.add(new Edge<>(row.getKey(), edge.getKey(), edge.getValue()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean removeVertex(V vertex)
+    {
+        if (adjacency.remove(vertex) == null)
+        {
+            return false;
+        }
+        for (Map<V, Integer> edges : adjacency.values())
+        {
+            edges.remove(vertex);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeEdge(V source, V destination)
+    {
+        Map<V, Integer> edges = adjacency.get(source);
+        return edges != null && edges.remove(destination) != null;
+    }
+
+    @Override
+    public void clear()
+    {
+        adjacency.clear();
+    }
+}
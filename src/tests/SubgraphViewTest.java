@@ -0,0 +1,140 @@
+package tests;
+
+import graphs.Edge;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import structures.DirectedGraph;
+import structures.SubgraphView;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that a subgraph view answers queries from its parent graph.
+ *
+ * @author agent
+ * @version 1.0
+ */
+public class SubgraphViewTest
+{
+    private static String[] testVerts = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private DirectedGraph<String> graph;
+    private SubgraphView<String> view;
+
+    /**
+     * Creates a complete graph and a view over half of it for each test.
+     */
+    @BeforeEach
+    public void setup()
+    {
+        graph = new DirectedGraph<>();
+        for (String letter : testVerts)
+        {
+            graph.addVertex(letter);
+        }
+        for (int i = 0; i < testVerts.length; i++)
+        {
+            for (int j = 0; j < testVerts.length; j++)
+            {
+                if (i != j)
+                {
+                    graph.addEdge(testVerts[i], testVerts[j], i * testVerts.length + j);
+                }
+            }
+        }
+
+        view = graph.subgraph(Set.of("B", "D", "E", "G"));
+    }
+
+    /**
+     * Verifies that only edges between vertices of the subset are seen.
+     */
+    @Test
+    public void inducedEdgesTest()
+    {
+        assertEquals(4, view.vertexSize());
+        assertEquals(12, view.edgeSize());
+        assertEquals(Set.of("B", "D", "E", "G"), view.vertices());
+
+        assertTrue(view.containsEdge("B", "D"));
+        assertEquals(graph.edgeWeight("G", "E"), view.edgeWeight("G", "E"));
+        assertFalse(view.containsEdge("A", "B"));
+        assertFalse(view.containsEdge("B", "B"));
+        assertEquals(-1, view.edgeWeight("B", "C"));
+        assertFalse(view.containsVertex("A"));
+
+        Set<Edge<String>> edges = view.edges();
+        assertEquals(12, edges.size());
+        for (Edge<String> edge : edges)
+        {
+            assertTrue(view.containsVertex(edge.getSource()));
+            assertTrue(view.containsVertex(edge.getDestination()));
+            assertEquals(graph.edgeWeight(edge.getSource(), edge.getDestination()), edge.getWeight());
+        }
+    }
+
+    /**
+     * Verifies that edge changes pass through the view in both directions.
+     */
+    @Test
+    public void sharedMatrixTest()
+    {
+        assertTrue(view.removeEdge("B", "D"));
+        assertFalse(graph.containsEdge("B", "D"));
+
+        graph.removeEdge("D", "E");
+        assertFalse(view.containsEdge("D", "E"));
+
+        assertTrue(view.addEdge("B", "D", 99));
+        assertEquals(99, graph.edgeWeight("B", "D"));
+
+        //vertices outside of the view are rejected
+        assertThrows(IllegalArgumentException.class, () -> view.addEdge("A", "B", 1));
+        assertFalse(view.removeEdge("A", "B"));
+        assertThrows(UnsupportedOperationException.class, () -> view.addVertex("Z"));
+        assertThrows(UnsupportedOperationException.class, () -> view.removeVertex("B"));
+    }
+
+    /**
+     * Verifies that a materialized copy no longer shares the matrix.
+     */
+    @Test
+    public void materializeTest()
+    {
+        DirectedGraph<String> copy = view.materialize();
+        assertEquals(view.vertices(), copy.vertices());
+        assertEquals(view.edges(), copy.edges());
+
+        graph.removeEdge("B", "D");
+        assertTrue(copy.containsEdge("B", "D"));
+        assertEquals(new HashSet<>(copy.edges()).size(), copy.edgeSize());
+    }
+
+    /**
+     * Verifies that a view can no longer be used once one of its vertices
+     * is removed from its parent, but other vertices can come and go.
+     */
+    @Test
+    public void parentVertexRemovedTest()
+    {
+        Set<Edge<String>> edges = view.edges();
+
+        //changing vertices outside of the view is fine
+        graph.addVertex("Z");
+        graph.removeVertex("A");
+        graph.removeVertex("C");
+        graph.addVertex("Y");
+        assertEquals(4, view.vertexSize());
+        assertTrue(view.containsEdge("B", "D"));
+        assertEquals(12, view.edges().size());
+
+        graph.removeVertex("D");
+        assertThrows(ConcurrentModificationException.class, () -> view.containsEdge("B", "E"));
+
+        //edge sets are copies, so they can still be used
+        assertTrue(edges.contains(new Edge<>("B", "D", 1)));
+    }
+}